@@ -0,0 +1,155 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only alert log written by one background thread. {@link #log} only
+ * queues the line, so callers on the FX thread never touch the file; the
+ * writer drains whatever has queued up and appends it with a single channel
+ * write. The file rolls over to name-yyyy-MM-dd.ext when the day changes or
+ * it would grow past the size limit. Queued lines are written on
+ * {@link #close()} or, failing that, at JVM shutdown.
+ */
+public class AlertLog implements AutoCloseable {
+
+    private static final int MAX_BATCH = 4096;
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Path file;
+    private final long maxBytes;
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private final Thread shutdownHook = new Thread(this::close, "alert-log-shutdown");
+    private volatile boolean parked;
+    private volatile boolean closed;
+
+    // Writer thread only.
+    private FileChannel channel;
+    private LocalDate fileDay;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    public AlertLog(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        writer = new Thread(this::run, "alert-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /** Queues one line; never blocks. Lines logged after close are dropped. */
+    public void log(String line) {
+        if (closed) return;
+        queue.offer(line);
+        if (parked) LockSupport.unpark(writer);
+    }
+
+    /** Writes everything queued so far and stops the writer. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; this may be the hook itself.
+        }
+    }
+
+    private void run() {
+        while (true) {
+            String line = queue.poll();
+            if (line == null) {
+                if (closed) break;
+                parked = true;
+                // Re-check after publishing parked, so a line offered in between is not missed.
+                if (queue.isEmpty() && !closed) LockSupport.park(this);
+                parked = false;
+                continue;
+            }
+            buffer.clear();
+            int n = 0;
+            do {
+                append(line);
+            } while (++n < MAX_BATCH && (line = queue.poll()) != null);
+            buffer.flip();
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                e.printStackTrace();
+                closeChannel();
+            }
+        }
+        closeChannel();
+    }
+
+    private void append(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int needed = bytes.length + NEWLINE.length;
+        if (buffer.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        buffer.put(bytes).put(NEWLINE);
+    }
+
+    private void write(ByteBuffer batch) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel == null) open();
+        if (channel.size() > 0 && (!today.equals(fileDay) || channel.size() + batch.remaining() > maxBytes)) {
+            rotate();
+        }
+        fileDay = today;
+        while (batch.hasRemaining()) channel.write(batch);
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileDay = channel.size() == 0 ? LocalDate.now()
+                : LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+    }
+
+    // Moves the current file aside as name-<day it was written>[.n].ext and starts a new one.
+    private void rotate() throws IOException {
+        channel.close();
+        channel = null;
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String ext = dot > 0 ? name.substring(dot) : "";
+        Path target = file.resolveSibling(base + "-" + fileDay + ext);
+        for (int i = 1; Files.exists(target); i++) {
+            target = file.resolveSibling(base + "-" + fileDay + "." + i + ext);
+        }
+        Files.move(file, target);
+        open();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,373 @@
+package application;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Read-only, disk-backed view of a comma-separated file with one row per
+ * line, such as students.txt; quoted fields may hold commas and line breaks,
+ * as CsvReader reads them. Opening it keeps only the byte offset and
+ * length of each valid row; rows are parsed on demand by
+ * {@link #read(int[])}. Search and sorting run as sequential scans over the
+ * file and return row numbers, so nothing but the rows on screen is ever
+ * materialized. Reads may come from several threads at once.
+ */
+public class ArchiveStore<T> implements Closeable {
+
+    private static final int CHUNK = 1 << 20;
+
+    private interface RowVisitor {
+        void visit(int row, byte[] bytes, int off, int len);
+    }
+
+    private final FileChannel channel;
+    private final Function<String[], T> parse;
+    private long[] starts = new long[1024];
+    private int[] lengths = new int[1024];
+    private int rows;
+    private int sortedColumn = -1;
+    private int[] sortedRows;
+    // Positions in sortedRows whose key equals the one before.
+    private BitSet sortedTies;
+
+    private ArchiveStore(FileChannel channel, Function<String[], T> parse) {
+        this.channel = channel;
+        this.parse = parse;
+    }
+
+    /**
+     * Indexes the file, keeping the rows that parse to non-null. Progress is
+     * reported as bytes scanned of the file size.
+     */
+    public static <T> ArchiveStore<T> open(Path file, Function<String[], T> parse,
+                                           StudentRepository.Progress progress) throws IOException {
+        ArchiveStore<T> store = new ArchiveStore<>(FileChannel.open(file, StandardOpenOption.READ), parse);
+        try {
+            store.index(progress);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /** Parses the given rows, in the order given. */
+    public List<T> read(int[] rowNumbers) throws IOException {
+        List<T> items = new ArrayList<>(rowNumbers.length);
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        for (int row : rowNumbers) {
+            int len = lengths[row];
+            if (buf.capacity() < len) buf = ByteBuffer.allocate(len);
+            buf.clear().limit(len);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, starts[row] + buf.position()) < 0) throw new EOFException("Archive truncated");
+            }
+            items.add(parse.apply(split(buf.array(), 0, len)));
+        }
+        return items;
+    }
+
+    /**
+     * Rows where some field contains the query, ignoring case, as
+     * SearchIndex matches; null when the query is blank.
+     */
+    public BitSet matches(String query) throws IOException {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return null;
+        BitSet hits = new BitSet(rows);
+        boolean comma = q.indexOf(',') >= 0;
+        byte[] ascii = isAscii(q) ? q.getBytes(StandardCharsets.US_ASCII) : null;
+        forEachRow((row, bytes, off, len) -> {
+            if (isQuoted(bytes, off, len)) {
+                for (String f : split(bytes, off, len)) {
+                    if (f.toLowerCase(Locale.ROOT).contains(q)) {
+                        hits.set(row);
+                        break;
+                    }
+                }
+            } else if (comma) {
+                return;
+            } else if (ascii != null && isAscii(bytes, off, len)) {
+                if (containsIgnoreCase(bytes, off, len, ascii)) hits.set(row);
+            } else if (new String(bytes, off, len, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT).contains(q)) {
+                hits.set(row);
+            }
+        });
+        return hits;
+    }
+
+    /**
+     * Row numbers ordered by one field. Fields compare as UTF-8 bytes, which
+     * is code point order and agrees with String.compareTo outside the
+     * surrogate range; ties keep file order. The last ascending order is
+     * kept, so flipping the direction does not sort again.
+     */
+    public int[] order(int field, boolean descending) throws IOException {
+        int[] sorted;
+        BitSet ties;
+        synchronized (this) {
+            sorted = field == sortedColumn ? sortedRows : null;
+            ties = sortedTies;
+        }
+        if (sorted == null) {
+            ties = new BitSet(rows);
+            sorted = sort(field, ties);
+            synchronized (this) {
+                sortedColumn = field;
+                sortedRows = sorted;
+                sortedTies = ties;
+            }
+        }
+        if (!descending) return sorted;
+        // Runs of equal keys go in reverse, each run still in file order, as
+        // a stable sort on the reversed comparison would leave them.
+        int[] reversed = new int[sorted.length];
+        int n = 0;
+        for (int to = sorted.length; to > 0; ) {
+            int from = to - 1;
+            while (ties.get(from)) from--;
+            for (int i = from; i < to; i++) reversed[n++] = sorted[i];
+            to = from;
+        }
+        return reversed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void index(StudentRepository.Progress progress) throws IOException {
+        long size = Math.max(1, channel.size());
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        long bufStart = 0;
+        int lineStart = 0;
+        boolean eof = false;
+        while (!eof) {
+            eof = channel.read(buf, bufStart + buf.position()) < 0;
+            byte[] b = buf.array();
+            int end = buf.position();
+            // Scanning restarts at a line start, where no quote is open. As in
+            // CsvReader, only a quote that starts a field opens one.
+            boolean quoted = false, fieldStart = true;
+            for (int i = lineStart; i < end; i++) {
+                byte c = b[i];
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < end && b[i + 1] == '"') i++;
+                        else quoted = false;
+                    }
+                } else if (c == '\n') {
+                    addLine(b, bufStart, lineStart, i);
+                    lineStart = i + 1;
+                    fieldStart = true;
+                } else {
+                    quoted = c == '"' && fieldStart;
+                    fieldStart = c == ',';
+                }
+            }
+            if (eof) {
+                if (lineStart < end) addLine(b, bufStart, lineStart, end);
+                break;
+            }
+            // Keep the partial last line and make room for more after it.
+            if (lineStart == 0 && end == buf.capacity()) {
+                buf = ByteBuffer.allocate(buf.capacity() * 2).put(buf.flip());
+            } else {
+                buf.position(lineStart).limit(end);
+                buf.compact();
+                bufStart += lineStart;
+                lineStart = 0;
+            }
+            progress.update(bufStart, size, rows);
+        }
+        starts = Arrays.copyOf(starts, rows);
+        lengths = Arrays.copyOf(lengths, rows);
+        progress.update(size, size, rows);
+    }
+
+    private void addLine(byte[] b, long bufStart, int from, int to) {
+        if (to > from && b[to - 1] == '\r') to--;
+        if (to == from || parse.apply(split(b, from, to - from)) == null) return;
+        if (rows == starts.length) {
+            starts = Arrays.copyOf(starts, rows * 2);
+            lengths = Arrays.copyOf(lengths, rows * 2);
+        }
+        starts[rows] = bufStart + from;
+        lengths[rows] = to - from;
+        rows++;
+    }
+
+    // Reads the file front to back and hands each indexed row to the visitor.
+    private void forEachRow(RowVisitor visitor) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        long bufStart = 0;
+        int bufLen = 0;
+        for (int row = 0; row < rows; row++) {
+            long start = starts[row];
+            int len = lengths[row];
+            if (start + len > bufStart + bufLen) {
+                if (buf.capacity() < len) buf = ByteBuffer.allocate(len);
+                buf.clear();
+                bufStart = start;
+                while (buf.hasRemaining()) {
+                    if (channel.read(buf, bufStart + buf.position()) < 0) break;
+                }
+                bufLen = buf.position();
+                if (bufLen < len) throw new EOFException("Archive truncated");
+            }
+            visitor.visit(row, buf.array(), (int) (start - bufStart), len);
+        }
+    }
+
+    private int[] sort(int field, BitSet ties) throws IOException {
+        int[] keyStart = new int[rows + 1];
+        byte[][] pool = {new byte[Math.max(16, rows * 8)]};
+        int[] used = {0};
+        forEachRow((row, bytes, off, len) -> {
+            int from = off, to;
+            if (isQuoted(bytes, off, len)) {
+                String[] fields = split(bytes, off, len);
+                bytes = (field < fields.length ? fields[field] : "").getBytes(StandardCharsets.UTF_8);
+                from = 0;
+                to = bytes.length;
+            } else {
+                int end = off + len;
+                for (int f = 0; f < field && from < end; from++) {
+                    if (bytes[from] == ',') f++;
+                }
+                to = from;
+                while (to < end && bytes[to] != ',') to++;
+            }
+            int n = to - from;
+            if (used[0] + n > pool[0].length) {
+                long grown = Math.max((long) pool[0].length * 2, (long) used[0] + n);
+                if (grown > Integer.MAX_VALUE - 8) throw new IllegalStateException("Column too large to sort");
+                pool[0] = Arrays.copyOf(pool[0], (int) grown);
+            }
+            System.arraycopy(bytes, from, pool[0], used[0], n);
+            keyStart[row] = used[0];
+            used[0] += n;
+            keyStart[row + 1] = used[0];
+        });
+        byte[] keys = pool[0];
+
+        // Pack the key bytes after the common prefix above the row number and
+        // sort the longs; rows tied on those bytes are then sorted in full.
+        int common = commonPrefix(keys, keyStart);
+        int rowBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, rows - 1));
+        int prefixBytes = (63 - rowBits) / 8;
+        long[] packed = new long[rows];
+        for (int r = 0; r < rows; r++) {
+            long p = 0;
+            for (int k = 0; k < prefixBytes; k++) {
+                int at = keyStart[r] + common + k;
+                p = p << 8 | (at < keyStart[r + 1] ? keys[at] & 0xFF : 0);
+            }
+            packed[r] = p << rowBits | r;
+        }
+        Arrays.parallelSort(packed);
+        long rowMask = (1L << rowBits) - 1;
+        int[] order = new int[rows];
+        for (int i = 0; i < rows; i++) order[i] = (int) (packed[i] & rowMask);
+        int[] scratch = order.clone();
+        for (int from = 0; from < rows; ) {
+            long prefix = packed[from] >>> rowBits;
+            int to = from + 1;
+            while (to < rows && packed[to] >>> rowBits == prefix) to++;
+            if (to - from > 1) mergeSort(order, scratch, from, to, keys, keyStart);
+            from = to;
+        }
+        for (int i = 1; i < rows; i++) {
+            if (compare(keys, keyStart, order[i - 1], order[i]) == 0) ties.set(i);
+        }
+        return order;
+    }
+
+    // Length of the prefix shared by every key.
+    private static int commonPrefix(byte[] keys, int[] keyStart) {
+        int rows = keyStart.length - 1;
+        if (rows == 0) return 0;
+        int common = keyStart[1] - keyStart[0];
+        for (int r = 1; r < rows && common > 0; r++) {
+            int n = Math.min(common, keyStart[r + 1] - keyStart[r]);
+            int m = Arrays.mismatch(keys, keyStart[0], keyStart[0] + n, keys, keyStart[r], keyStart[r] + n);
+            common = m < 0 ? n : m;
+        }
+        return common;
+    }
+
+    // Stable top-down merge sort of src[from, to) into dst; both start equal.
+    private static void mergeSort(int[] dst, int[] src, int from, int to, byte[] keys, int[] keyStart) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(src, dst, from, mid, keys, keyStart);
+        mergeSort(src, dst, mid, to, keys, keyStart);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || l < mid && compare(keys, keyStart, src[l], src[r]) <= 0) {
+                dst[i] = src[l++];
+            } else {
+                dst[i] = src[r++];
+            }
+        }
+    }
+
+    private static int compare(byte[] keys, int[] keyStart, int a, int b) {
+        return Arrays.compareUnsigned(keys, keyStart[a], keyStart[a + 1], keys, keyStart[b], keyStart[b + 1]);
+    }
+
+    // Splits a row as CsvReader does: on commas outside quotes.
+    private static String[] split(byte[] b, int off, int len) {
+        return CsvBatch.parseRow(b, off, off + len);
+    }
+
+    private static boolean isQuoted(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            if (b[i] == '"') return true;
+        }
+        return false;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAscii(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            if (b[i] < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(byte[] b, int off, int len, byte[] q) {
+        outer:
+        for (int i = off, last = off + len - q.length; i <= last; i++) {
+            for (int j = 0; j < q.length; j++) {
+                int c = b[i + j];
+                if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+                if (c != q[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,263 @@
+package application;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.collections.ModifiableObservableListBase;
+import javafx.collections.transformation.FilteredList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * ObservableList that can group many mutations into a single change event,
+ * so FilteredList/SortedList, indexes and tables react once per batch
+ * instead of once per row. With an extractor, property edits on an element
+ * are reported as an update of that row; without one, the owner reports its
+ * edits with {@link #update(Object)}.
+ */
+public class BatchList<T> extends ModifiableObservableListBase<T> {
+
+    private static final int HIDE_THRESHOLD = 64;
+
+    private ArrayList<T> items = new ArrayList<>();
+    private final Function<T, Observable[]> extractor;
+    // Row of each element, built by updated() on demand. Entries below
+    // indexedBelow are exact; a change at a row lowers it to that row.
+    private IdentityHashMap<T, Integer> positions;
+    private int indexedBelow;
+
+    public BatchList() {
+        this(null);
+    }
+
+    public BatchList(Function<T, Observable[]> extractor) {
+        this.extractor = extractor;
+    }
+
+    /** Runs the mutations as one transaction; listeners see one combined change at the end. */
+    public void batch(Runnable mutations) {
+        beginChange();
+        try {
+            mutations.run();
+        } finally {
+            endChange();
+        }
+    }
+
+    /** Reports an element edited through its setters as an update of its row. */
+    public void update(T item) {
+        updated(item);
+    }
+
+    /** Removes the given items (by identity) in one O(n) pass and one change. */
+    public void removeItems(Collection<? extends T> toRemove) {
+        if (toRemove.isEmpty()) return;
+        Set<T> doomed = Collections.newSetFromMap(new IdentityHashMap<>());
+        doomed.addAll(toRemove);
+        beginChange();
+        try {
+            ArrayList<T> kept = new ArrayList<>(Math.max(0, items.size() - doomed.size()));
+            int removed = 0;
+            for (int i = 0; i < items.size(); i++) {
+                T item = items.get(i);
+                if (doomed.contains(item)) {
+                    unobserve(item);
+                    dropped(i, item);
+                    nextRemove(i - removed, item);
+                    removed++;
+                } else {
+                    kept.add(item);
+                }
+            }
+            if (removed > 0) {
+                items = kept;
+                modCount++;
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Removes items shown through a filtered view of this list. Large batches
+     * are first filtered out of the view, so a SortedList above it rebuilds
+     * once instead of updating its mapping row by row.
+     */
+    public void removeItems(Collection<? extends T> toRemove, FilteredList<T> view) {
+        if (toRemove.size() < HIDE_THRESHOLD) {
+            removeItems(toRemove);
+            return;
+        }
+        Set<T> doomed = Collections.newSetFromMap(new IdentityHashMap<>());
+        doomed.addAll(toRemove);
+        Predicate<? super T> shown = view.getPredicate();
+        view.setPredicate(item -> !doomed.contains(item) && (shown == null || shown.test(item)));
+        try {
+            removeItems(doomed);
+        } finally {
+            view.setPredicate(shown);
+        }
+    }
+
+    @Override
+    public boolean setAll(Collection<? extends T> col) {
+        beginChange();
+        try {
+            if (!items.isEmpty()) nextRemove(0, new ArrayList<>(items));
+            items.forEach(this::unobserve);
+            positions = null;
+            items = new ArrayList<>(col);
+            items.forEach(this::observe);
+            modCount++;
+            if (!items.isEmpty()) nextAdd(0, items.size());
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) return;
+        beginChange();
+        try {
+            List<T> range = items.subList(fromIndex, toIndex);
+            nextRemove(fromIndex, new ArrayList<>(range));
+            range.forEach(this::unobserve);
+            for (int i = fromIndex; i < toIndex; i++) dropped(i, items.get(i));
+            range.clear();
+            modCount++;
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        items.add(index, element);
+        observe(element);
+        if (index < indexedBelow) indexedBelow = index;
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        T old = items.set(index, element);
+        unobserve(old);
+        observe(element);
+        dropped(index, old);
+        return old;
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        T old = items.remove(index);
+        unobserve(old);
+        dropped(index, old);
+        return old;
+    }
+
+    // Each occurrence of an element registers one Row on its observables and
+    // removing the occurrence takes one off again, so no map from element to
+    // listener is kept; loading a million rows does not build one.
+    private void observe(T item) {
+        if (extractor == null) return;
+        Row row = new Row(item);
+        for (Observable o : extractor.apply(item)) o.addListener(row);
+    }
+
+    private void unobserve(T item) {
+        if (extractor == null) return;
+        Row row = new Row(item);
+        for (Observable o : extractor.apply(item)) o.removeListener(row);
+    }
+
+    private void updated(T item) {
+        int index = indexOfItem(item);
+        if (index < 0) return;
+        beginChange();
+        nextUpdate(index);
+        endChange();
+    }
+
+    // Rows at or after the given one no longer hold the recorded positions.
+    private void dropped(int index, T item) {
+        if (positions == null) return;
+        if (index < indexedBelow) indexedBelow = index;
+        Integer at = positions.get(item);
+        if (at != null && at == index) positions.remove(item);
+    }
+
+    // Finds the row of an element by identity. The map is extended from the
+    // watermark as far as needed, so a run of edits costs one pass in total
+    // rather than one per edit.
+    private int indexOfItem(T item) {
+        if (positions == null) {
+            positions = new IdentityHashMap<>();
+            indexedBelow = 0;
+        }
+        Integer at = positions.get(item);
+        if (at != null && at < indexedBelow && items.get(at) == item) return at;
+        while (indexedBelow < items.size()) {
+            T next = items.get(indexedBelow);
+            positions.put(next, indexedBelow);
+            if (next == item) return indexedBelow++;
+            indexedBelow++;
+        }
+        // Reached for an element not in the list, or for the remaining copy of
+        // one listed twice after the other copy was removed.
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item) {
+                positions.put(item, i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Equal to any other Row of this list for the same element, which is what
+    // lets removeListener find the registered one.
+    private final class Row implements InvalidationListener {
+        private final T item;
+
+        Row(T item) {
+            this.item = item;
+        }
+
+        @Override
+        public void invalidated(Observable o) {
+            updated(item);
+        }
+
+        private BatchList<T> owner() {
+            return BatchList.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BatchList<?>.Row)) return false;
+            BatchList<?>.Row other = (BatchList<?>.Row) o;
+            return other.owner() == owner() && other.item == item;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(item);
+        }
+    }
+}
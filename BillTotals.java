@@ -0,0 +1,53 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Running bill totals in integer paise. Adds and removes are picked up
+// from the product list; in-place edits are applied as remove-then-add.
+public class BillTotals {
+    private long totalPaise;
+    private long quantity;
+    private int lineCount;
+
+    public static BillTotals bind(ObservableList<Product> products) {
+        BillTotals totals = new BillTotals();
+        products.forEach(totals::add);
+        products.addListener((ListChangeListener<Product>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                c.getRemoved().forEach(totals::remove);
+                c.getAddedSubList().forEach(totals::add);
+            }
+        });
+        return totals;
+    }
+
+    public static long toPaise(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static long lineTotalPaise(Product p) {
+        return p.getQuantity() * toPaise(p.getPrice());
+    }
+
+    public void add(Product p) {
+        totalPaise += lineTotalPaise(p);
+        quantity += p.getQuantity();
+        lineCount++;
+    }
+
+    public void remove(Product p) {
+        totalPaise -= lineTotalPaise(p);
+        quantity -= p.getQuantity();
+        lineCount--;
+    }
+
+    public BigDecimal getTotal() { return BigDecimal.valueOf(totalPaise, 2); }
+    public long getTotalPaise() { return totalPaise; }
+    public long getQuantity() { return quantity; }
+    public int getLineCount() { return lineCount; }
+}
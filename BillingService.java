@@ -0,0 +1,127 @@
+package application;
+
+import javafx.beans.Observable;
+import javafx.collections.transformation.FilteredList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The bill without any UI: product lines, their running totals and name
+ * indexes, the bill.dat journal and the {@link SalesLedger} that completed
+ * bills are appended to. Operations are synchronized; while a view is bound
+ * to {@link #products()}, call them on the FX thread.
+ */
+public class BillingService implements Closeable {
+
+    private final BatchList<Product> products = new BatchList<>(p -> new Observable[]{
+            p.nameProperty(), p.quantityProperty(), p.priceProperty()});
+    private final BillTotals totals = BillTotals.bind(products);
+    private final PrefixIndex<Product> nameIndex = PrefixIndex.bind(products, Product::getName);
+    private final KeyIndex<Product> byName = KeyIndex.bind(products, Product::getName);
+    private final ChangeJournal<Product> journal;
+    private final Path ledgerFile;
+    private SalesLedger ledger;
+
+    public BillingService(Path file) {
+        journal = Product.journal(file);
+        ledgerFile = file.resolveSibling("sales.ledger");
+    }
+
+    public synchronized void load() throws IOException {
+        journal.load(products);
+    }
+
+    public BatchList<Product> products() {
+        return products;
+    }
+
+    public BillTotals totals() {
+        return totals;
+    }
+
+    public synchronized Product find(String name) {
+        return byName.get(name);
+    }
+
+    public synchronized void addQuantity(Product p, int quantity) {
+        totals.remove(p);
+        p.setQuantity(p.getQuantity() + quantity);
+        totals.add(p);
+    }
+
+    /** Adds a line unless another line already has its name. */
+    public synchronized boolean add(Product p) {
+        if (byName.contains(p.getName())) return false;
+        products.add(p);
+        return true;
+    }
+
+    /** Edits a line in place; refused if the new name belongs to another line. */
+    public synchronized boolean update(Product p, String name, int quantity, double price) {
+        Product owner = byName.get(name);
+        if (owner != null && owner != p) return false;
+        String oldName = p.getName();
+        totals.remove(p);
+        products.batch(() -> {
+            p.setName(name);
+            p.setQuantity(quantity);
+            p.setPrice(price);
+        });
+        totals.add(p);
+        nameIndex.update(p);
+        byName.rekey(oldName, p);
+        return true;
+    }
+
+    public synchronized void remove(Collection<Product> selected, FilteredList<Product> view) {
+        products.removeItems(selected, view);
+    }
+
+    /** Lines whose name matches the prefix query, or null for a blank query. */
+    public synchronized Set<Product> search(String query) {
+        return nameIndex.query(query);
+    }
+
+    public synchronized void save() throws IOException {
+        journal.commit();
+    }
+
+    /** Writes the bill as a printed receipt, such as bill.txt. */
+    public synchronized void printReceipt(Path file, LocalDateTime when) throws IOException {
+        new ReceiptRenderer().write(file, products, when);
+    }
+
+    /**
+     * Appends the current bill to the sales ledger and starts an empty one.
+     * Returns the amount recorded, or null if the bill had no lines.
+     */
+    public synchronized BigDecimal checkout(LocalDateTime when) throws IOException {
+        if (products.isEmpty()) return null;
+        BigDecimal total = totals.getTotal();
+        ledger().record(when, products);
+        products.clear();
+        journal.commit();
+        return total;
+    }
+
+    /** The sales history, opened on first use. */
+    public synchronized SalesLedger ledger() throws IOException {
+        if (ledger == null) ledger = SalesLedger.open(ledgerFile);
+        return ledger;
+    }
+
+    /** Folds the journal into bill.dat if everything has been saved, and closes the ledger. */
+    public synchronized void close() throws IOException {
+        try {
+            journal.compactIfClean();
+        } finally {
+            if (ledger != null) ledger.close();
+        }
+    }
+}
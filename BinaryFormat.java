@@ -0,0 +1,171 @@
+package application;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary snapshot format: a magic number and record count followed by
+ * records written field by field. Strings are varint length-prefixed UTF-8,
+ * dates are epoch-day ints and doubles are written bit for bit. Files are streamed through a FileChannel with a
+ * large heap buffer in both directions. Records of the same day share one
+ * LocalDate through a small cache.
+ */
+public class BinaryFormat<T> implements ChangeJournal.Format<T> {
+
+    public interface Encoder<T> {
+        void write(Out out, T item) throws IOException;
+    }
+
+    public interface Decoder<T> {
+        T read(In in) throws IOException;
+    }
+
+    private static final int BUFFER = 1 << 20;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int DATE_SLOTS = 1 << 12;
+
+    private final int magic;
+    private final Encoder<T> encoder;
+    private final Decoder<T> decoder;
+
+    public BinaryFormat(int magic, Encoder<T> encoder, Decoder<T> decoder) {
+        this.magic = magic;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void read(Path file, Consumer<T> sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            In in = new In(ch);
+            if (in.getInt() != magic) throw new IOException("Not a snapshot file: " + file);
+            for (int n = in.getInt(); n > 0; n--) sink.accept(decoder.read(in));
+        }
+    }
+
+    @Override
+    public void write(Path file, List<T> items) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Out out = new Out(ch);
+            out.putInt(magic);
+            out.putInt(items.size());
+            for (T item : items) encoder.write(out, item);
+            out.flush();
+        }
+    }
+
+    public static final class Out {
+        private final FileChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+
+        Out(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        public void putInt(int v) throws IOException {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        public void putString(String s) throws IOException {
+            byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+            ensure(bytes.length + 5);
+            int len = bytes.length;
+            while ((len & ~0x7F) != 0) {
+                buf.put((byte) ((len & 0x7F) | 0x80));
+                len >>>= 7;
+            }
+            buf.put((byte) len);
+            buf.put(bytes);
+        }
+
+        public void putDate(LocalDate d) throws IOException {
+            putInt(d == null ? NO_DATE : (int) d.toEpochDay());
+        }
+
+        public void putDouble(double v) throws IOException {
+            ensure(8);
+            buf.putDouble(v);
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            flush();
+            if (buf.capacity() < n) buf = ByteBuffer.allocate(n);
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+
+    public static final class In {
+        private final FileChannel ch;
+        private ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+        private final LocalDate[] dates = new LocalDate[DATE_SLOTS];
+
+        In(FileChannel ch) {
+            this.ch = ch;
+            buf.flip();
+        }
+
+        public int getInt() throws IOException {
+            require(4);
+            return buf.getInt();
+        }
+
+        public String getString() throws IOException {
+            int len = 0;
+            for (int shift = 0; ; shift += 7) {
+                require(1);
+                byte b = buf.get();
+                len |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+            }
+            require(len);
+            String s = new String(buf.array(), buf.position(), len, StandardCharsets.UTF_8);
+            buf.position(buf.position() + len);
+            return s;
+        }
+
+        public LocalDate getDate() throws IOException {
+            int day = getInt();
+            if (day == NO_DATE) return null;
+            int slot = day & (DATE_SLOTS - 1);
+            LocalDate d = dates[slot];
+            if (d == null || d.toEpochDay() != day) dates[slot] = d = LocalDate.ofEpochDay(day);
+            return d;
+        }
+
+        public double getDouble() throws IOException {
+            require(8);
+            return buf.getDouble();
+        }
+
+        private void require(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            if (buf.capacity() < n) {
+                ByteBuffer bigger = ByteBuffer.allocate(n);
+                bigger.put(buf);
+                buf = bigger;
+            } else {
+                buf.compact();
+            }
+            while (buf.position() < n) {
+                if (ch.read(buf) < 0) throw new EOFException("Truncated snapshot");
+            }
+            buf.flip();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package application;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.nio.file.Path;
+
+public class Book {
+    private final SimpleStringProperty title = new SimpleStringProperty();
+    private final SimpleStringProperty author = new SimpleStringProperty();
+    private final SimpleStringProperty bookId = new SimpleStringProperty();
+
+    // Snapshot format of books.dat.
+    public static final ChangeJournal.Format<Book> FORMAT = new BinaryFormat<>(0x424F4F4B,
+            (out, b) -> {
+                out.putString(b.getTitle());
+                out.putString(b.getAuthor());
+                out.putString(b.getBookId());
+            },
+            in -> new Book(in.getString(), in.getString(), in.getString()));
+
+    public Book(String t, String a, String id) {
+        title.set(t);
+        author.set(a);
+        bookId.set(id);
+    }
+
+    public static ChangeJournal<Book> journal(Path snapshot) {
+        return new ChangeJournal<>(snapshot,
+                b -> new String[]{b.getTitle(), b.getAuthor(), b.getBookId()},
+                f -> new Book(f[0], f[1], f[2]),
+                FORMAT);
+    }
+
+    /** Parses a line of the legacy books.txt, or returns null if it is not a book line. */
+    public static Book parseLegacy(String line) {
+        int author = line.indexOf(", Author: ");
+        int id = line.lastIndexOf(", Book ID: ");
+        if (!line.startsWith("Title: ") || author < 0 || id < author) return null;
+        return new Book(line.substring(7, author), line.substring(author + 10, id), line.substring(id + 11));
+    }
+
+    public String getTitle() { return title.get(); }
+    public String getAuthor() { return author.get(); }
+    public String getBookId() { return bookId.get(); }
+
+    public StringProperty titleProperty() { return title; }
+    public StringProperty authorProperty() { return author; }
+    public StringProperty bookIdProperty() { return bookId; }
+}
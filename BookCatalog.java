@@ -0,0 +1,140 @@
+package application;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Book ID -> catalogue entry, with copy and loan counters kept in sync with
+ * the books and loans lists. Each Book row with a given ID is one copy; each
+ * loan naming that ID holds one. Adds and removes are picked up from the
+ * lists; a loan whose book ID changes through a setter must be reported with
+ * {@link #moveLoan(String, UserRecord)}. IDs match case-insensitively, as in
+ * {@link KeyIndex}. Not thread-safe; LoanService guards it with its own lock.
+ */
+public class BookCatalog {
+
+    private static final class Entry {
+        Book book; // any one copy; title and author are the same for all
+        int copies;
+        int onLoan;
+        final ReadOnlyIntegerWrapper available = new ReadOnlyIntegerWrapper();
+
+        void changed() {
+            available.set(copies - onLoan);
+        }
+    }
+
+    private static final ReadOnlyIntegerProperty NONE = new ReadOnlyIntegerWrapper(0).getReadOnlyProperty();
+
+    private final Map<String, Entry> byId = new HashMap<>();
+
+    public static BookCatalog bind(ObservableList<Book> books, ObservableList<UserRecord> loans) {
+        BookCatalog catalog = new BookCatalog();
+        books.forEach(catalog::addCopy);
+        catalog.lendAll(loans, 1);
+        books.addListener((ListChangeListener<Book>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                c.getRemoved().forEach(catalog::removeCopy);
+                c.getAddedSubList().forEach(catalog::addCopy);
+            }
+        });
+        loans.addListener((ListChangeListener<UserRecord>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                catalog.lendAll(c.getRemoved(), -1);
+                catalog.lendAll(c.getAddedSubList(), 1);
+            }
+        });
+        return catalog;
+    }
+
+    /** A catalogued copy with this ID, or null if there is none. */
+    public Book get(String bookId) {
+        Entry e = byId.get(KeyIndex.normalize(bookId));
+        return e == null || e.copies == 0 ? null : e.book;
+    }
+
+    public boolean contains(String bookId) {
+        return get(bookId) != null;
+    }
+
+    public int copies(String bookId) {
+        Entry e = byId.get(KeyIndex.normalize(bookId));
+        return e == null ? 0 : e.copies;
+    }
+
+    public int onLoan(String bookId) {
+        Entry e = byId.get(KeyIndex.normalize(bookId));
+        return e == null ? 0 : e.onLoan;
+    }
+
+    /** Copies not on loan; negative if loans were recorded for more copies than exist. */
+    public int available(String bookId) {
+        Entry e = byId.get(KeyIndex.normalize(bookId));
+        return e == null ? 0 : e.copies - e.onLoan;
+    }
+
+    public boolean isAvailable(String bookId) {
+        return available(bookId) > 0;
+    }
+
+    /** Live available count for a catalogued book, for table cells. */
+    public ReadOnlyIntegerProperty availableProperty(String bookId) {
+        Entry e = byId.get(KeyIndex.normalize(bookId));
+        return e == null ? NONE : e.available.getReadOnlyProperty();
+    }
+
+    public void moveLoan(String oldBookId, UserRecord loan) {
+        if (KeyIndex.normalize(oldBookId).equals(KeyIndex.normalize(loan.getBookId()))) return;
+        lend(oldBookId, -1);
+        lend(loan.getBookId(), 1);
+    }
+
+    private void addCopy(Book b) {
+        Entry e = byId.computeIfAbsent(KeyIndex.normalize(b.getBookId()), k -> new Entry());
+        if (e.copies == 0) e.book = b;
+        e.copies++;
+        e.changed();
+    }
+
+    private void removeCopy(Book b) {
+        String id = KeyIndex.normalize(b.getBookId());
+        Entry e = byId.get(id);
+        if (e == null) return;
+        e.copies--;
+        release(id, e);
+    }
+
+    // Loans are counted per book ID first, so loading a million loans looks
+    // each book up once rather than once per loan.
+    private void lendAll(List<? extends UserRecord> loans, int delta) {
+        Map<String, int[]> counts = new HashMap<>();
+        for (UserRecord r : loans) counts.computeIfAbsent(r.getBookId(), k -> new int[1])[0]++;
+        counts.forEach((bookId, n) -> lend(bookId, delta * n[0]));
+    }
+
+    private void lend(String bookId, int delta) {
+        String id = KeyIndex.normalize(bookId);
+        Entry e = delta > 0 ? byId.computeIfAbsent(id, k -> new Entry()) : byId.get(id);
+        if (e == null) return;
+        e.onLoan += delta;
+        release(id, e);
+    }
+
+    // Entries are kept while anything refers to them, so loans recorded
+    // before their book is catalogued are still counted when it arrives.
+    private void release(String id, Entry e) {
+        if (e.copies == 0 && e.onLoan == 0) {
+            byId.remove(id);
+        } else {
+            e.changed();
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal for one dataset. Changes to the attached list are
+ * recorded as positional add/remove/update frames and appended to
+ * {@code <snapshot>.journal} on {@link #commit()}; the snapshot file itself
+ * is only rewritten when the journal is compacted. Frames carry a length and
+ * CRC so a torn append is cut off on recovery. The journal header names the
+ * snapshot it applies to by size and checksum, so copying or touching the
+ * files keeps the journal, and a journal is never replayed over another
+ * snapshot: compaction marks the old journal with the new snapshot before
+ * replacing it, and any other journal that does not match is set aside.
+ * Each commit also records the list size it started from, and replay checks
+ * every position against the rows actually loaded; a journal that does not
+ * fit is set aside rather than applied to the wrong rows. Committed changes
+ * are never deleted unless the snapshot holds them.
+ */
+public class ChangeJournal<T> {
+
+    public interface Format<T> {
+        void read(Path file, Consumer<T> sink) throws IOException;
+
+        void write(Path file, List<T> items) throws IOException;
+    }
+
+    public static final class Change {
+        final byte op;
+        final int index;
+        final int count;
+        final String[] fields;
+
+        Change(byte op, int index, int count, String[] fields) {
+            this.op = op;
+            this.index = index;
+            this.count = count;
+            this.fields = fields;
+        }
+    }
+
+    private static final int MAGIC = 0x4A524E4C;
+    private static final byte ADD = 1, REMOVE = 2, UPDATE = 3, SIZE = 4, FOLDED = 5;
+    private static final int HEADER = 20;
+    private static final String[] NO_FIELDS = {};
+    private static final int COMPACT_MIN_OPS = 1024;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final Function<T, String[]> encode;
+    private final Function<String[], T> decode;
+    private final Format<T> format;
+
+    private ObservableList<T> list;
+    private FileChannel channel;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingOps;
+    private int journalOps;
+    private int committedSize;
+    // Why the journal last read was set aside; reported when it is recovered.
+    private IOException setAside;
+
+    public ChangeJournal(Path snapshot, Function<T, String[]> encode, Function<String[], T> decode, Format<T> format) {
+        this.snapshot = snapshot;
+        this.journal = snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+        this.encode = encode;
+        this.decode = decode;
+        this.format = format;
+    }
+
+    /**
+     * Reads the snapshot into target, then recovers the journal over it. If
+     * the snapshot cannot be read nothing is attached, and commits fail
+     * instead of journaling against a partial list.
+     */
+    public void load(BatchList<T> target) throws IOException {
+        List<T> items = new ArrayList<>();
+        if (Files.exists(snapshot)) format.read(snapshot, items::add);
+        target.setAll(items);
+        recover(target);
+    }
+
+    /** Reads the journal and recovers it over target, which holds the snapshot rows. */
+    public void recover(BatchList<T> target) throws IOException {
+        recover(readJournal(), target);
+    }
+
+    /**
+     * Replays changes over target, which holds the snapshot rows, as one
+     * batch, and starts recording. A journal that does not fit the snapshot
+     * is moved to {@code <journal>.failed} and target keeps the snapshot
+     * alone; the exception thrown afterwards says so.
+     */
+    public void recover(List<Change> changes, BatchList<T> target) throws IOException {
+        IOException failure = setAside;
+        setAside = null;
+        if (failure == null) {
+            try {
+                target.batch(prepare(changes, target));
+            } catch (IOException e) {
+                failure = setAside(e);
+            }
+        }
+        attach(target);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Reads committed changes, truncating a torn tail. A journal that the
+     * snapshot already holds (compaction stopped before restarting it) is
+     * dropped. One that was written for another snapshot, or cannot be
+     * read, is moved to {@code <journal>.failed} and no changes are
+     * returned; the next {@link #recover(List, BatchList)} reports it.
+     */
+    public List<Change> readJournal() throws IOException {
+        setAside = null;
+        if (!Files.exists(journal)) return new ArrayList<>();
+        try {
+            return readFrames();
+        } catch (IOException e) {
+            setAside = setAside(e);
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Change> readFrames() throws IOException {
+        List<Change> changes = new ArrayList<>();
+        long size = snapshotSize();
+        long[] sum = {-1};
+        boolean current, folded = false;
+        long good;
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+            try {
+                if (in.readInt() != MAGIC) throw new IOException(journal.getFileName() + " is not a journal");
+                current = matches(in.readLong(), in.readLong(), size, sum);
+            } catch (EOFException e) {
+                throw new IOException("The header of " + journal.getFileName() + " is incomplete", e);
+            }
+            good = HEADER;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int len = in.readInt();
+                    int crcSum = in.readInt();
+                    if (len <= 0 || len > ch.size()) break;
+                    payload = new byte[len];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != crcSum) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                Change c = decodeChange(payload);
+                if (c.op == FOLDED && !current) {
+                    folded |= matches(Long.parseLong(c.fields[0]), Long.parseLong(c.fields[1]), size, sum);
+                }
+                changes.add(c);
+                good += 8 + payload.length;
+            }
+        }
+        if (!current) {
+            if (!folded) {
+                throw new IOException(journal.getFileName() + " was written for another copy of "
+                        + snapshot.getFileName());
+            }
+            Files.delete(journal);
+            journalOps = 0;
+            return new ArrayList<>();
+        }
+        if (good < Files.size(journal)) {
+            try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                ch.truncate(good);
+                ch.force(true);
+            }
+        }
+        journalOps = changes.size();
+        return changes;
+    }
+
+    // Whether a snapshot size and checksum name the current snapshot. The
+    // checksum is only read when the size agrees, and then only once.
+    private boolean matches(long size, long sum, long snapshotSize, long[] snapshotSum) throws IOException {
+        if (size != snapshotSize) return false;
+        if (snapshotSum[0] == -1) snapshotSum[0] = snapshotSize < 0 ? 0 : checksum(snapshot);
+        return sum == snapshotSum[0];
+    }
+
+    // Checks every change against the size of the list it will meet and
+    // decodes the rows up front, so a journal that does not fit the snapshot
+    // is rejected before the list is touched.
+    private Runnable prepare(List<Change> changes, List<T> target) throws IOException {
+        int size = target.size();
+        List<T> rows = new ArrayList<>(changes.size());
+        for (int n = 0; n < changes.size(); n++) {
+            Change c = changes.get(n);
+            boolean fits;
+            switch (c.op) {
+                case ADD:
+                    fits = c.index >= 0 && c.index <= size++;
+                    break;
+                case REMOVE:
+                    fits = c.count > 0 && c.index >= 0 && c.index <= size - c.count;
+                    size -= c.count;
+                    break;
+                case UPDATE:
+                    fits = c.index >= 0 && c.index < size;
+                    break;
+                case SIZE:
+                    fits = c.index == size;
+                    break;
+                case FOLDED:
+                    fits = true;
+                    break;
+                default:
+                    throw new IOException("Journal entry " + (n + 1) + " has unknown op " + c.op);
+            }
+            if (!fits) {
+                throw new IOException("Journal entry " + (n + 1) + " (" + describe(c)
+                        + ") does not fit a list of " + (c.op == REMOVE ? size + c.count : size) + " rows");
+            }
+            try {
+                rows.add(c.op == ADD || c.op == UPDATE ? decode.apply(c.fields) : null);
+            } catch (RuntimeException e) {
+                throw new IOException("Journal entry " + (n + 1) + " cannot be read: " + e, e);
+            }
+        }
+        return () -> {
+            for (int n = 0; n < changes.size(); n++) {
+                Change c = changes.get(n);
+                if (c.op == ADD) target.add(c.index, rows.get(n));
+                else if (c.op == REMOVE) target.subList(c.index, c.index + c.count).clear();
+                else if (c.op == UPDATE) target.set(c.index, rows.get(n));
+            }
+        };
+    }
+
+    private static String describe(Change c) {
+        switch (c.op) {
+            case ADD: return "add at " + c.index;
+            case REMOVE: return "remove " + c.count + " at " + c.index;
+            case UPDATE: return "update at " + c.index;
+            case FOLDED: return "compacted";
+            default: return "list size " + c.index;
+        }
+    }
+
+    /** Starts recording changes made to the list. Call after it has been loaded. */
+    public void attach(ObservableList<T> list) {
+        this.list = list;
+        committedSize = list.size();
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                if (c.wasRemoved()) append(REMOVE, c.getFrom(), c.getRemovedSize(), null);
+                if (c.wasAdded()) {
+                    for (int i = c.getFrom(); i < c.getTo(); i++) append(ADD, i, 1, list.get(i));
+                } else if (c.wasUpdated()) {
+                    for (int i = c.getFrom(); i < c.getTo(); i++) append(UPDATE, i, 1, list.get(i));
+                }
+            }
+        });
+    }
+
+    /** Records an in-place edit made through setters, which the list cannot see. */
+    public void updated(T item) {
+        int index = list.indexOf(item);
+        if (index >= 0) append(UPDATE, index, 1, item);
+    }
+
+    public boolean hasPendingChanges() {
+        return pendingOps > 0;
+    }
+
+    /** Appends and syncs the changes recorded since the last commit. */
+    public void commit() throws IOException {
+        if (list == null) {
+            throw new IOException(snapshot.getFileName() + " was not loaded, so changes to it cannot be saved");
+        }
+        if (pendingOps == 0) return;
+        if (channel == null) openJournal();
+        long start = channel.size();
+        try {
+            ByteBuffer size = ByteBuffer.wrap(frame(SIZE, committedSize, 0, NO_FIELDS));
+            ByteBuffer buf = ByteBuffer.wrap(pending.toByteArray());
+            while (size.hasRemaining()) channel.write(size);
+            while (buf.hasRemaining()) channel.write(buf);
+            channel.force(false);
+        } catch (IOException e) {
+            channel.truncate(start);
+            throw e;
+        }
+        journalOps += pendingOps + 1;
+        pending.reset();
+        pendingOps = 0;
+        committedSize = list.size();
+        if (journalOps > COMPACT_MIN_OPS && journalOps > list.size() / 2) compact();
+    }
+
+    /**
+     * Folds a committed journal into the snapshot, or writes the first snapshot
+     * of a dataset that has none yet; skipped while edits are unsaved.
+     */
+    public void compactIfClean() throws IOException {
+        if (list != null && pendingOps == 0 && (journalOps > 0 || !Files.exists(snapshot))) compact();
+    }
+
+    private void compact() throws IOException {
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        format.write(tmp, list);
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        long size = Files.size(tmp);
+        long sum = checksum(tmp);
+        // Mark the old journal as held by the new snapshot first: if we stop
+        // between the two renames it is dropped, not replayed or set aside.
+        if (Files.exists(journal)) {
+            if (channel == null) channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            ByteBuffer folded = ByteBuffer.wrap(frame(FOLDED, 0, 0,
+                    new String[]{String.valueOf(size), String.valueOf(sum)}));
+            while (folded.hasRemaining()) channel.write(folded);
+            channel.force(false);
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        closeChannel();
+        openJournal(size, sum);
+    }
+
+    private void openJournal() throws IOException {
+        long size = snapshotSize();
+        openJournal(size, size < 0 ? 0 : checksum(snapshot));
+    }
+
+    // Opens the journal for appending, first starting a new one for the
+    // snapshot of this size and checksum if there is none yet.
+    private void openJournal(long snapshotSize, long snapshotSum) throws IOException {
+        if (!Files.exists(journal) || journalOps == 0) {
+            Path tmp = journal.resolveSibling(journal.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                header.putInt(MAGIC).putLong(snapshotSize).putLong(snapshotSum).flip();
+                while (header.hasRemaining()) ch.write(header);
+                ch.force(true);
+            }
+            Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalOps = 0;
+        }
+        channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Moves a journal that cannot be replayed out of the way, keeping it for
+    // inspection, so the dataset carries on from its snapshot. Returns the
+    // exception to report.
+    private IOException setAside(IOException failure) throws IOException {
+        closeChannel();
+        Path failed = journal.resolveSibling(journal.getFileName() + ".failed");
+        if (Files.exists(journal)) Files.move(journal, failed, StandardCopyOption.REPLACE_EXISTING);
+        return new IOException("The unsaved-change journal of " + snapshot.getFileName()
+                + " could not be applied and was moved to " + failed.getFileName()
+                + "; showing the last saved snapshot. " + failure.getMessage(), failure);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) channel.close();
+        channel = null;
+        journalOps = 0;
+    }
+
+    private void append(byte op, int index, int count, T item) {
+        byte[] frame = frame(op, index, count, item == null ? NO_FIELDS : encode.apply(item));
+        pending.write(frame, 0, frame.length);
+        pendingOps++;
+    }
+
+    private static byte[] frame(byte op, int index, int count, String[] fields) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            out.writeInt(index);
+            out.writeInt(count);
+            out.writeShort(fields.length);
+            for (String f : fields) out.writeUTF(f == null ? "" : f);
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteArrayOutputStream framed = new ByteArrayOutputStream(payload.length + 8);
+            DataOutputStream frame = new DataOutputStream(framed);
+            frame.writeInt(payload.length);
+            frame.writeInt((int) crc.getValue());
+            frame.write(payload);
+            return framed.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Change decodeChange(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        int index = in.readInt();
+        int count = in.readInt();
+        String[] fields = new String[in.readShort()];
+        for (int i = 0; i < fields.length; i++) fields[i] = in.readUTF();
+        return new Change(op, index, count, fields);
+    }
+
+    private long snapshotSize() throws IOException {
+        return Files.exists(snapshot) ? Files.size(snapshot) : -1;
+    }
+
+    private static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (ch.read(buf) >= 0) {
+                crc.update(buf.flip());
+                buf.clear();
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One timer for every clock label of a stage. Each tick formats the time once
+ * and only touches labels in the scene currently shown; the timer is paused
+ * while the stage is minimized.
+ */
+public class ClockService {
+
+    private final Stage stage;
+    private final String prefix;
+    private final DateTimeFormatter format;
+    private final Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> tick()));
+    private final List<Label> labels = new ArrayList<>();
+    private LocalDateTime shown;
+    private String text;
+
+    public ClockService(Stage stage, String prefix, String pattern) {
+        this.stage = stage;
+        this.prefix = prefix;
+        this.format = DateTimeFormatter.ofPattern(pattern);
+        timeline.setCycleCount(Timeline.INDEFINITE);
+        stage.sceneProperty().addListener((obs, old, scene) -> tick());
+        stage.iconifiedProperty().addListener((obs, old, iconified) -> {
+            if (iconified) {
+                timeline.pause();
+            } else {
+                tick();
+                timeline.play();
+            }
+        });
+        timeline.play();
+    }
+
+    public Label createLabel() {
+        Label label = new Label();
+        labels.add(label);
+        label.setText(currentText());
+        return label;
+    }
+
+    private void tick() {
+        if (stage.isIconified()) return;
+        Scene current = stage.getScene();
+        String t = currentText();
+        for (Label label : labels) {
+            if (label.getScene() == current) label.setText(t);
+        }
+    }
+
+    private String currentText() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (!now.equals(shown)) {
+            shown = now;
+            text = prefix + now.format(format);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,65 @@
+package application;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+
+import java.util.function.Function;
+
+/**
+ * Typed table columns. Cell values come from a method reference to the
+ * row's own property, so there is no reflective getter lookup and no new
+ * wrapper per cell update; the cell also follows later edits to the row.
+ */
+public final class Columns {
+
+    private Columns() {
+    }
+
+    public static <S, T> TableColumn<S, T> of(String title, Function<S, ? extends ObservableValue<T>> property) {
+        TableColumn<S, T> col = new TableColumn<>(title);
+        col.setCellValueFactory(cell -> property.apply(cell.getValue()));
+        return col;
+    }
+
+    /**
+     * A column over rows that never change, such as report lines. The value
+     * is handed to the cell in a constant that keeps no listeners, rather
+     * than in a property wrapper.
+     */
+    public static <S, T> TableColumn<S, T> ofValue(String title, Function<S, T> value) {
+        TableColumn<S, T> col = new TableColumn<>(title);
+        col.setCellValueFactory(cell -> new Constant<>(value.apply(cell.getValue())));
+        return col;
+    }
+
+    private static final class Constant<T> implements ObservableValue<T> {
+        private final T value;
+
+        Constant(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getValue() {
+            return value;
+        }
+
+        @Override
+        public void addListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void removeListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Bulk CSV import and export (RFC 4180 quoting, UTF-8). Import finds row
+ * boundaries in one quote-aware byte scan, then parses and maps the rows in
+ * parallel fork/join chunks; results keep file order. Rows the mapper rejects
+ * by throwing IllegalArgumentException are collected with their reason.
+ */
+public final class CsvBatch {
+
+    private static final int CHUNK_ROWS = 8192;
+
+    public static final class Rejected {
+        // 1-based row in the file; a quoted line break does not start a new row
+        public final int row;
+        public final String text;
+        public final String reason;
+
+        public Rejected(int row, String text, String reason) {
+            this.row = row;
+            this.text = text;
+            this.reason = reason;
+        }
+    }
+
+    public static final class Result<T> {
+        public final List<T> rows;
+        public final List<Rejected> rejected;
+        private final int[] fileRows;
+        private final byte[] bytes;
+        private final int[] bounds;
+
+        Result(List<T> rows, List<Rejected> rejected, int[] fileRows, byte[] bytes, int[] bounds) {
+            this.rows = rows;
+            this.rejected = rejected;
+            this.fileRows = fileRows;
+            this.bytes = bytes;
+            this.bounds = bounds;
+        }
+
+        /**
+         * Records that rows.get(i) was turned down after parsing, reported
+         * with its row number and text from the file.
+         */
+        public void reject(int i, String reason) {
+            int r = fileRows[i];
+            rejected.add(new Rejected(r + 1, rowText(bytes, bounds, r), reason));
+        }
+
+        /** Puts the rejected rows back in file order, after {@link #reject} calls. */
+        public void sortRejected() {
+            rejected.sort(Comparator.comparingInt(r -> r.row));
+        }
+    }
+
+    private CsvBatch() {
+    }
+
+    public static <T> Result<T> read(Path file, Function<String[], T> mapper) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int start = bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB
+                && (bytes[2] & 0xFF) == 0xBF ? 3 : 0;
+        int[] bounds = rowBounds(bytes, start);
+        int rows = bounds.length - 1;
+        Object[] parsed = new Object[rows];
+        Rejected[] rejected = new Rejected[rows];
+
+        ForkJoinPool.commonPool().invoke(new ParseTask<>(bytes, bounds, 0, rows, mapper, parsed, rejected));
+
+        List<T> ok = new ArrayList<>(rows);
+        List<Rejected> bad = new ArrayList<>();
+        int[] fileRows = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            if (rejected[i] != null) {
+                bad.add(rejected[i]);
+            } else if (parsed[i] != null) {
+                fileRows[ok.size()] = i;
+                ok.add(cast(parsed[i]));
+            }
+        }
+        return new Result<>(ok, bad, fileRows, bytes, bounds);
+    }
+
+    public static <T> void write(Path file, List<T> items, Function<T, String[]> fields) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder(128);
+            for (T item : items) {
+                sb.setLength(0);
+                String[] f = fields.apply(item);
+                for (int i = 0; i < f.length; i++) {
+                    if (i > 0) sb.append(',');
+                    quote(sb, f[i] == null ? "" : f[i]);
+                }
+                writer.append(sb).append("\r\n");
+            }
+        }
+    }
+
+    public static void writeRejected(Path file, List<Rejected> rejected) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Rejected r : rejected) {
+                writer.write("row " + r.row + ": " + r.reason + " | " + r.text);
+                writer.newLine();
+            }
+        }
+    }
+
+    // Offsets where each row starts, plus a final end offset. Newlines inside
+    // quoted fields do not end a row. As in CsvReader, a quote opens a quoted
+    // field only at the start of a field; elsewhere it is an ordinary byte.
+    private static int[] rowBounds(byte[] b, int start) {
+        int[] bounds = new int[1024];
+        int n = 0;
+        bounds[n++] = start;
+        boolean fieldStart = true;
+        boolean quoted = false;
+        for (int i = start; i < b.length; i++) {
+            byte c = b[i];
+            if (quoted) {
+                if (c != '"') continue;
+                if (i + 1 < b.length && b[i + 1] == '"') i++;
+                else quoted = false;
+                continue;
+            }
+            if (c == '"' && fieldStart) {
+                quoted = true;
+            } else if (c == ',') {
+                fieldStart = true;
+                continue;
+            } else if (c == '\n') {
+                if (n == bounds.length) bounds = Arrays.copyOf(bounds, n * 2);
+                bounds[n++] = i + 1;
+                fieldStart = true;
+                continue;
+            }
+            fieldStart = false;
+        }
+        if (bounds[n - 1] < b.length) {
+            if (n == bounds.length) bounds = Arrays.copyOf(bounds, n + 1);
+            bounds[n++] = b.length + 1;
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+
+    private static String rowText(byte[] b, int[] bounds, int r) {
+        int from = bounds[r];
+        int to = Math.min(bounds[r + 1] - 1, b.length);
+        return new String(b, from, to - from, StandardCharsets.UTF_8).trim();
+    }
+
+    static String[] parseRow(byte[] b, int from, int to) {
+        if (to > from && b[to - 1] == '\r') to--;
+        List<String> fields = new ArrayList<>(8);
+        byte[] buf = new byte[Math.max(16, to - from)];
+        int i = from;
+        while (true) {
+            int len = 0;
+            if (i < to && b[i] == '"') {
+                i++;
+                while (i < to) {
+                    if (b[i] == '"') {
+                        if (i + 1 < to && b[i + 1] == '"') {
+                            buf[len++] = '"';
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    buf[len++] = b[i++];
+                }
+                while (i < to && b[i] != ',') buf[len++] = b[i++];
+            } else {
+                while (i < to && b[i] != ',') buf[len++] = b[i++];
+            }
+            fields.add(new String(buf, 0, len, StandardCharsets.UTF_8));
+            if (i >= to) break;
+            i++;
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    private static void quote(StringBuilder sb, String s) {
+        boolean needs = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        if (!needs) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
+
+    private static final class ParseTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+        private final Function<String[], T> mapper;
+        private final Object[] parsed;
+        private final Rejected[] rejected;
+
+        ParseTask(byte[] bytes, int[] bounds, int lo, int hi, Function<String[], T> mapper,
+                  Object[] parsed, Rejected[] rejected) {
+            this.bytes = bytes;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.mapper = mapper;
+            this.parsed = parsed;
+            this.rejected = rejected;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > CHUNK_ROWS) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ParseTask<>(bytes, bounds, lo, mid, mapper, parsed, rejected),
+                        new ParseTask<>(bytes, bounds, mid, hi, mapper, parsed, rejected));
+                return;
+            }
+            for (int r = lo; r < hi; r++) {
+                int from = bounds[r];
+                int to = Math.min(bounds[r + 1] - 1, bytes.length);
+                if (to <= from || (to - from == 1 && bytes[from] == '\r')) continue;
+                String[] fields = parseRow(bytes, from, to);
+                try {
+                    parsed[r] = mapper.apply(fields);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    rejected[r] = new Rejected(r + 1, rowText(bytes, bounds, r), e.getMessage());
+                }
+            }
+        }
+    }
+}
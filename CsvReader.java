@@ -0,0 +1,99 @@
+package application;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming comma-separated reader. Splits rows with a small state machine
+ * over a fixed char buffer, so no line strings or regex splits are created
+ * and memory stays flat however large the input is. A field that starts
+ * with a double quote is read as in RFC 4180: it runs to the closing quote,
+ * may hold commas and line breaks, and "" inside it stands for one quote.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos;
+    private int limit;
+    private long charsRead;
+    private final List<String> row = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Returns the fields of the next row, or null at end of input. */
+    public String[] next() throws IOException {
+        row.clear();
+        field.setLength(0);
+        boolean any = false;
+        boolean fieldStart = true;
+        boolean quoted = false;
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (!any) return null;
+                return endRow();
+            }
+            char c = buf[pos++];
+            any = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if ((pos < limit || fill()) && buf[pos] == '"') {
+                    field.append('"');
+                    pos++;
+                } else {
+                    quoted = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case ',':
+                    row.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                    continue;
+                case '\n':
+                    return endRow();
+                case '\r':
+                    break;
+                case '"':
+                    if (fieldStart) quoted = true;
+                    else field.append(c);
+                    break;
+                default:
+                    field.append(c);
+            }
+            fieldStart = false;
+        }
+    }
+
+    /** Characters consumed so far, for progress reporting. */
+    public long charsRead() {
+        return charsRead;
+    }
+
+    private String[] endRow() {
+        row.add(field.toString());
+        return row.toArray(new String[0]);
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        charsRead += n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,50 @@
+package application;
+
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formatted dates cached per epoch day. Loan dates cluster around today, so
+ * a window of days around startup covers nearly every lookup; dates outside
+ * it are formatted directly. Slots only ever hold immutable strings, so the
+ * cache may be read from any thread.
+ */
+public final class DateCache {
+
+    private static final int WINDOW = 1 << 13;
+
+    private final DateTimeFormatter format;
+    private final long base = LocalDate.now().toEpochDay() - WINDOW / 2;
+    private final String[] texts = new String[WINDOW];
+
+    public DateCache(DateTimeFormatter format) {
+        this.format = format;
+    }
+
+    public String format(LocalDate date) {
+        if (date == null) return "";
+        long slot = date.toEpochDay() - base;
+        if (slot < 0 || slot >= WINDOW) return date.format(format);
+        String text = texts[(int) slot];
+        if (text == null) texts[(int) slot] = text = date.format(format);
+        return text;
+    }
+
+    /**
+     * Cells for a column whose values are the rows' date properties: the cell
+     * observes the property itself and renders it through the cache.
+     */
+    public <S> Callback<TableColumn<S, LocalDate>, TableCell<S, LocalDate>> cells() {
+        return col -> new TableCell<>() {
+            @Override
+            protected void updateItem(LocalDate item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : format(item));
+            }
+        };
+    }
+}
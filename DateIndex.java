@@ -0,0 +1,78 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Items bucketed by the day of a date field, so range questions such as
+ * "overdue as of D" cost O(log n + k). Adds and removes are picked up from
+ * the bound list; date changes made through a setter must be reported with
+ * {@link #redate(LocalDate, Object)}. Items are found again by their current
+ * date, so no per-item map is kept.
+ */
+public class DateIndex<T> {
+
+    private final NavigableMap<LocalDate, List<T>> byDay = new TreeMap<>();
+    private final Function<T, LocalDate> date;
+
+    public DateIndex(Function<T, LocalDate> date) {
+        this.date = date;
+    }
+
+    public static <T> DateIndex<T> bind(ObservableList<T> list, Function<T, LocalDate> date) {
+        DateIndex<T> index = new DateIndex<>(date);
+        list.forEach(index::add);
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                c.getRemoved().forEach(index::remove);
+                c.getAddedSubList().forEach(index::add);
+            }
+        });
+        return index;
+    }
+
+    public void add(T item) {
+        LocalDate d = date.apply(item);
+        if (d != null) byDay.computeIfAbsent(d, k -> new ArrayList<>()).add(item);
+    }
+
+    public void remove(T item) {
+        remove(date.apply(item), item);
+    }
+
+    public void redate(LocalDate oldDate, T item) {
+        remove(oldDate, item);
+        add(item);
+    }
+
+    private void remove(LocalDate d, T item) {
+        if (d == null) return;
+        List<T> items = byDay.get(d);
+        if (items != null && items.removeIf(i -> i == item) && items.isEmpty()) byDay.remove(d);
+    }
+
+    /** Items dated strictly before the given day, oldest first. */
+    public List<T> before(LocalDate day) {
+        return flatten(byDay.headMap(day, false).values());
+    }
+
+    /** Items dated within [from, to], oldest first. */
+    public List<T> between(LocalDate from, LocalDate to) {
+        return flatten(byDay.subMap(from, true, to, true).values());
+    }
+
+    private List<T> flatten(Collection<List<T>> buckets) {
+        List<T> out = new ArrayList<>();
+        buckets.forEach(out::addAll);
+        return out;
+    }
+}
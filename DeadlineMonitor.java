@@ -0,0 +1,163 @@
+package application;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Watches item deadlines on a background thread and queues each item once,
+ * when it first goes past its deadline: at midnight rollover, or when an edit
+ * moves it into the past. Items already overdue when bound are the baseline
+ * and are not reported. The queue is bounded; overflow is counted, not kept.
+ * All tracking state is confined to the monitor thread; the FX thread only
+ * hands over items with their deadlines and drains the queue. Only items not
+ * yet due are kept; an overdue one is known by its date alone, which is why
+ * an edit reports the deadline the item had before it.
+ */
+public class DeadlineMonitor<T> {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "deadline-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Function<T, LocalDate> deadline;
+    private final BlockingQueue<T> notifications;
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Runnable onNotify;
+
+    private final NavigableMap<Long, List<T>> pending = new TreeMap<>();
+    private long today = LocalDate.now().toEpochDay();
+
+    public DeadlineMonitor(Function<T, LocalDate> deadline, int capacity, Runnable onNotify) {
+        this.deadline = deadline;
+        this.notifications = new ArrayBlockingQueue<>(capacity);
+        this.onNotify = onNotify;
+    }
+
+    public void bind(ObservableList<T> list) {
+        Snapshot<T> baseline = snapshot(list);
+        executor.execute(() -> track(baseline, false));
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                Snapshot<T> removed = snapshot(c.getRemoved());
+                Snapshot<T> added = snapshot(c.getAddedSubList());
+                executor.execute(() -> {
+                    for (int i = 0; i < removed.items.size(); i++) forget(removed.items.get(i), removed.deadlines[i]);
+                    track(added, true);
+                });
+            }
+        });
+        scheduleRollover();
+    }
+
+    /** Re-reads the deadline of an item edited through its setters; oldDeadline is the one it had before. */
+    public void update(T item, LocalDate oldDeadline) {
+        LocalDate d = deadline.apply(item);
+        executor.execute(() -> {
+            forget(item, oldDeadline);
+            boolean wasOverdue = oldDeadline != null && oldDeadline.toEpochDay() < today;
+            if (wasOverdue && d != null && d.toEpochDay() < today) return;
+            List<T> due = new ArrayList<>(1);
+            track(item, d, due);
+            publish(due);
+        });
+    }
+
+    /** Takes up to max queued items; call on the FX thread. */
+    public List<T> drain(int max) {
+        List<T> batch = new ArrayList<>(Math.min(max, notifications.size()));
+        notifications.drainTo(batch, max);
+        return batch;
+    }
+
+    public int queued() {
+        return notifications.size();
+    }
+
+    /** Notifications discarded since the last call because the queue was full. */
+    public int takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    private void track(Snapshot<T> added, boolean notify) {
+        List<T> due = new ArrayList<>();
+        for (int i = 0; i < added.items.size(); i++) track(added.items.get(i), added.deadlines[i], due);
+        if (notify) publish(due);
+    }
+
+    // Keeps an item that is not yet due, or adds it to due if it already is.
+    private void track(T item, LocalDate d, List<T> due) {
+        if (d == null) return;
+        long day = d.toEpochDay();
+        if (day < today) due.add(item);
+        else pending.computeIfAbsent(day, k -> new ArrayList<>()).add(item);
+    }
+
+    private void forget(T item, LocalDate d) {
+        if (d == null) return;
+        List<T> items = pending.get(d.toEpochDay());
+        if (items != null && items.removeIf(i -> i == item) && items.isEmpty()) pending.remove(d.toEpochDay());
+    }
+
+    private void rollover() {
+        today = LocalDate.now().toEpochDay();
+        List<T> due = new ArrayList<>();
+        for (Iterator<List<T>> it = pending.headMap(today, false).values().iterator(); it.hasNext(); ) {
+            due.addAll(it.next());
+            it.remove();
+        }
+        publish(due);
+        scheduleRollover();
+    }
+
+    private void scheduleRollover() {
+        LocalDateTime now = LocalDateTime.now();
+        long delay = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toMillis() + 1000;
+        executor.schedule(this::rollover, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish(List<T> items) {
+        if (items.isEmpty()) return;
+        for (T item : items) {
+            if (!notifications.offer(item)) dropped.incrementAndGet();
+        }
+        Platform.runLater(onNotify);
+    }
+
+    // Items and their deadlines as read on the FX thread, in two flat arrays
+    // rather than a pair object per item.
+    private Snapshot<T> snapshot(List<? extends T> items) {
+        List<T> copy = new ArrayList<>(items);
+        LocalDate[] deadlines = new LocalDate[copy.size()];
+        for (int i = 0; i < deadlines.length; i++) deadlines[i] = deadline.apply(copy.get(i));
+        return new Snapshot<>(copy, deadlines);
+    }
+
+    private static final class Snapshot<T> {
+        final List<T> items;
+        final LocalDate[] deadlines;
+
+        Snapshot(List<T> items, LocalDate[] deadlines) {
+            this.items = items;
+            this.deadlines = deadlines;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a search off the JavaFX thread once typing pauses. Every submit
+ * supersedes the previous one: a pending run is cancelled, and a run that
+ * finishes after a newer submit is dropped instead of being published.
+ * Each instance runs on its own thread unless given an executor, so a slow
+ * search in one window never holds up another.
+ */
+public class DebouncedSearch<R> {
+
+    private final ScheduledExecutorService executor;
+    private final long delayMillis;
+    private final Function<String, R> search;
+    private final Consumer<R> publish;
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> pending;
+
+    public DebouncedSearch(long delayMillis, Function<String, R> search, Consumer<R> publish) {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search");
+            t.setDaemon(true);
+            return t;
+        }), delayMillis, search, publish);
+    }
+
+    /** Runs searches on the given executor, alongside whatever else it runs. */
+    public DebouncedSearch(ScheduledExecutorService executor, long delayMillis,
+                           Function<String, R> search, Consumer<R> publish) {
+        this.executor = executor;
+        this.delayMillis = delayMillis;
+        this.search = search;
+        this.publish = publish;
+    }
+
+    public void submit(String query) {
+        schedule(query, delayMillis);
+    }
+
+    public void submitNow(String query) {
+        schedule(query, 0);
+    }
+
+    /** Drops the pending run and any result still to come. */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = null;
+    }
+
+    private synchronized void schedule(String query, long delay) {
+        long gen = generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = executor.schedule(() -> {
+            if (gen != generation.get()) return;
+            R result = search.apply(query);
+            Platform.runLater(() -> {
+                if (gen == generation.get()) publish.accept(result);
+            });
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,88 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive key -> item hash index kept in sync with an ObservableList.
+ * Adds and removes are picked up from the list; key changes made through a
+ * setter must be reported with {@link #rekey(String, Object)}. A bound index
+ * is built from the list in one pass on its first lookup, so loading a large
+ * list at startup does not pay for it.
+ */
+public class KeyIndex<T> {
+
+    // Null until a bound index is first looked up.
+    private Map<String, T> byKey;
+    private final List<T> source;
+    private final Function<T, String> key;
+
+    public KeyIndex(Function<T, String> key) {
+        this(key, null);
+        byKey = new HashMap<>();
+    }
+
+    private KeyIndex(Function<T, String> key, List<T> source) {
+        this.key = key;
+        this.source = source;
+    }
+
+    public static <T> KeyIndex<T> bind(ObservableList<T> list, Function<T, String> key) {
+        KeyIndex<T> index = new KeyIndex<>(key, list);
+        list.addListener((ListChangeListener<T>) c -> {
+            if (index.byKey == null) return;
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                c.getRemoved().forEach(index::remove);
+                c.getAddedSubList().forEach(index::put);
+            }
+        });
+        return index;
+    }
+
+    public static String normalize(String k) {
+        return k == null ? "" : k.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean contains(String k) {
+        return keys().containsKey(normalize(k));
+    }
+
+    public T get(String k) {
+        return keys().get(normalize(k));
+    }
+
+    // Until the index is built the list is the only record, so changes
+    // reported before then need no work.
+    public void put(T item) {
+        if (byKey != null) byKey.putIfAbsent(normalize(key.apply(item)), item);
+    }
+
+    public void remove(T item) {
+        if (byKey != null) byKey.remove(normalize(key.apply(item)), item);
+    }
+
+    public void rekey(String oldKey, T item) {
+        if (byKey == null) return;
+        byKey.remove(normalize(oldKey), item);
+        put(item);
+    }
+
+    public int size() {
+        return keys().size();
+    }
+
+    private Map<String, T> keys() {
+        if (byKey == null) {
+            byKey = new HashMap<>(source.size() * 4 / 3 + 16);
+            source.forEach(this::put);
+        }
+        return byKey;
+    }
+}
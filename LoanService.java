@@ -0,0 +1,268 @@
+package application;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Library loans and book catalogue without any UI: the lists, their indexes,
+ * the copy counters of {@link BookCatalog} and the loans.dat/books.dat
+ * journals. Loans are only checked out against a catalogued copy. Views bind to {@link #loans()} and
+ * {@link #books()}; batch tools call the same operations without a stage.
+ * Operations are synchronized; while a view is bound to the lists, call them
+ * on the FX thread.
+ */
+public class LoanService implements Closeable {
+
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final long ALERT_LOG_LIMIT = 8L << 20;
+
+    /** Outcome of adding or editing a loan. */
+    public enum Checkout { OK, DUPLICATE_USER_ID, UNKNOWN_BOOK, UNAVAILABLE }
+
+    // No extractor: observing six properties of a million loans is most of
+    // the load, and updateLoan is the only place loans are edited.
+    private final BatchList<UserRecord> loans = new BatchList<>();
+    private final BatchList<Book> books = new BatchList<>();
+    private final KeyIndex<UserRecord> byUserId = KeyIndex.bind(loans, UserRecord::getUserId);
+    private final SearchIndex<UserRecord> search = SearchIndex.bind(loans,
+            UserRecord::getName, UserRecord::getUserId, UserRecord::getBookName, UserRecord::getBookId);
+    private final DateIndex<UserRecord> byExpiry = DateIndex.bind(loans, UserRecord::getExpiry);
+    private final BookCatalog catalog = BookCatalog.bind(books, loans);
+    private final Path booksFile;
+    private final Path legacyBooks;
+    private final ChangeJournal<Book> bookJournal;
+    private final ChangeJournal<UserRecord> loanJournal;
+    private final AlertLog alerts;
+
+    public LoanService(Path dir) {
+        alerts = new AlertLog(dir.resolve("admin_alerts.txt"), ALERT_LOG_LIMIT);
+        booksFile = dir.resolve("books.dat");
+        legacyBooks = dir.resolve("books.txt");
+        bookJournal = Book.journal(booksFile);
+        loanJournal = UserRecord.journal(dir.resolve("loans.dat"));
+    }
+
+    /**
+     * Loads books and loans. If one of them fails the other is still loaded;
+     * the first failure is thrown with any second one suppressed.
+     */
+    public synchronized void load() throws IOException {
+        IOException failure = null;
+        try {
+            loadBooks();
+        } catch (IOException e) {
+            failure = e;
+        }
+        try {
+            loanJournal.load(loans);
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+            else failure.addSuppressed(e);
+        }
+        if (failure != null) throw failure;
+    }
+
+    public BatchList<UserRecord> loans() {
+        return loans;
+    }
+
+    public BatchList<Book> books() {
+        return books;
+    }
+
+    public synchronized boolean isUserIdTaken(String userId) {
+        return byUserId.contains(userId);
+    }
+
+    /** The catalogued book with this ID, or null. */
+    public synchronized Book book(String bookId) {
+        return catalog.get(bookId);
+    }
+
+    public synchronized int copies(String bookId) {
+        return catalog.copies(bookId);
+    }
+
+    public synchronized int available(String bookId) {
+        return catalog.available(bookId);
+    }
+
+    /** Live count of copies not on loan, for the books table. */
+    public synchronized ReadOnlyIntegerProperty availableProperty(String bookId) {
+        return catalog.availableProperty(bookId);
+    }
+
+    /**
+     * Checks the loan out: its user ID must be free, which is logged to
+     * admin_alerts.txt when it is not, and its book must have a copy in.
+     */
+    public synchronized Checkout addLoan(UserRecord loan) {
+        Checkout result = check(null, loan.getUserId(), loan.getName(), loan.getBookId());
+        if (result == Checkout.OK) loans.add(loan);
+        return result;
+    }
+
+    /**
+     * Edits a loan in place. Refused if the new user ID belongs to another
+     * loan, or the loan moves to a book with no copy in.
+     */
+    public synchronized Checkout updateLoan(UserRecord loan, String name, String userId,
+                                            String bookName, String bookId, LocalDate start) {
+        Checkout result = check(loan, userId, name, bookId);
+        if (result != Checkout.OK) return result;
+        String oldUserId = loan.getUserId();
+        String oldBookId = loan.getBookId();
+        LocalDate oldExpiry = loan.getExpiry();
+        loan.setName(name);
+        loan.setUserId(userId);
+        loan.setBookName(bookName);
+        loan.setBookId(bookId);
+        loan.setStart(start);
+        loan.setExpiry(start.plusMonths(1));
+        loans.update(loan);
+        byUserId.rekey(oldUserId, loan);
+        search.update(loan);
+        byExpiry.redate(oldExpiry, loan);
+        catalog.moveLoan(oldBookId, loan);
+        return Checkout.OK;
+    }
+
+    public synchronized void removeLoans(Collection<UserRecord> selected) {
+        loans.removeItems(selected);
+    }
+
+    /**
+     * Adds imported loans in one change. Rows whose user ID is taken or
+     * repeats an earlier row, or whose book is unknown or has no copy left
+     * once the earlier rows are counted, are rejected in the import result
+     * with their file row; returns how many were kept.
+     */
+    public synchronized int importLoans(CsvBatch.Result<UserRecord> imported) {
+        Set<String> seen = new HashSet<>();
+        Map<String, Integer> lent = new HashMap<>();
+        List<UserRecord> accepted = new ArrayList<>(imported.rows.size());
+        for (int i = 0; i < imported.rows.size(); i++) {
+            UserRecord r = imported.rows.get(i);
+            String book = KeyIndex.normalize(r.getBookId());
+            if (byUserId.contains(r.getUserId()) || !seen.add(KeyIndex.normalize(r.getUserId()))) {
+                imported.reject(i, "duplicate user ID");
+                duplicateUserId(r.getUserId(), r.getName());
+            } else if (!catalog.contains(book)) {
+                imported.reject(i, "unknown book ID " + r.getBookId());
+            } else if (catalog.available(book) - lent.getOrDefault(book, 0) <= 0) {
+                imported.reject(i, "no copy of " + r.getBookId() + " available");
+            } else {
+                lent.merge(book, 1, Integer::sum);
+                accepted.add(r);
+            }
+        }
+        imported.sortRejected();
+        loans.addAll(accepted);
+        return accepted.size();
+    }
+
+    /** Loans matching the query, or null for a blank query. Safe from any thread. */
+    public SearchIndex<UserRecord>.Hits search(String query) {
+        return search.query(query);
+    }
+
+    /** Loans that expired before the given day, oldest first. */
+    public synchronized List<UserRecord> overdue(LocalDate asOf) {
+        return byExpiry.before(asOf);
+    }
+
+    public synchronized List<UserRecord> dueBetween(LocalDate from, LocalDate to) {
+        return byExpiry.between(from, to);
+    }
+
+    public synchronized void addBook(Book book) {
+        books.add(book);
+    }
+
+    public synchronized void importBooks(List<Book> rows) {
+        books.addAll(rows);
+    }
+
+    public synchronized void saveLoans() throws IOException {
+        loanJournal.commit();
+    }
+
+    public synchronized void saveBooks() throws IOException {
+        bookJournal.commit();
+    }
+
+    /** Folds the journals into the snapshots if everything has been saved, and flushes the alert log. */
+    public synchronized void close() throws IOException {
+        try {
+            bookJournal.compactIfClean();
+            loanJournal.compactIfClean();
+        } finally {
+            alerts.close();
+        }
+    }
+
+    public static UserRecord loanFromCsv(String[] f) {
+        if (f.length != 5 && f.length != 6) throw new IllegalArgumentException("expected 5 or 6 fields, got " + f.length);
+        for (int i = 0; i < 5; i++) {
+            if (f[i].isBlank()) throw new IllegalArgumentException("field " + (i + 1) + " is empty");
+        }
+        LocalDate start = LocalDate.parse(f[4].trim(), DATE_FORMAT);
+        LocalDate expiry = f.length == 6 && !f[5].isBlank() ? LocalDate.parse(f[5].trim(), DATE_FORMAT) : start.plusMonths(1);
+        return new UserRecord(f[0].trim(), f[1].trim(), f[2].trim(), f[3].trim(), start, expiry);
+    }
+
+    public static Book bookFromCsv(String[] f) {
+        if (f.length != 3) throw new IllegalArgumentException("expected 3 fields, got " + f.length);
+        for (int i = 0; i < 3; i++) {
+            if (f[i].isBlank()) throw new IllegalArgumentException("field " + (i + 1) + " is empty");
+        }
+        return new Book(f[0].trim(), f[1].trim(), f[2].trim());
+    }
+
+    private Checkout check(UserRecord loan, String userId, String name, String bookId) {
+        UserRecord owner = byUserId.get(userId);
+        if (owner != null && owner != loan) {
+            duplicateUserId(userId, name);
+            return Checkout.DUPLICATE_USER_ID;
+        }
+        if (!catalog.contains(bookId)) return Checkout.UNKNOWN_BOOK;
+        boolean holdsCopy = loan != null && KeyIndex.normalize(loan.getBookId()).equals(KeyIndex.normalize(bookId));
+        return holdsCopy || catalog.isAvailable(bookId) ? Checkout.OK : Checkout.UNAVAILABLE;
+    }
+
+    private void duplicateUserId(String userId, String name) {
+        alerts.log("Duplicate User ID: " + userId + " by " + name + " on " + LocalDate.now());
+    }
+
+    // books.txt predates books.dat; it is imported once and then left alone.
+    private void loadBooks() throws IOException {
+        if (Files.exists(booksFile) || !Files.exists(legacyBooks)) {
+            bookJournal.load(books);
+            return;
+        }
+        List<Book> legacy = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(legacyBooks, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                Book b = Book.parseLegacy(line);
+                if (b != null) legacy.add(b);
+            }
+        }
+        books.setAll(legacy);
+        bookJournal.recover(books);
+    }
+}
@@ -1,35 +1,49 @@
 package application;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.beans.property.*;
 import javafx.collections.*;
 import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.util.Duration;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 public class Main extends Application {
 
-    private final ObservableList<UserRecord> userRecords = FXCollections.observableArrayList();
-    private final ObservableList<Book> books = FXCollections.observableArrayList();
-    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final LoanService library = new LoanService(Paths.get(""));
+    private static final int PAGE_SIZE = 50;
+    private static final int DUE_SOON_DAYS = 7;
+    private static final int ALERT_BATCH = 200;
+    private final DeadlineMonitor<UserRecord> overdueMonitor =
+            new DeadlineMonitor<>(UserRecord::getExpiry, 10_000, this::refreshAlertCount);
+    private Button alertsBtn;
+    private ClockService clock;
+    private static final DateCache DATES = new DateCache(LoanService.DATE_FORMAT);
 
     @Override
     public void start(Stage stage) {
+        try {
+            library.load();
+        } catch (IOException e) {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Could not load the library data: " + e.getMessage()).showAndWait();
+        }
+        overdueMonitor.bind(library.loans());
+        clock = new ClockService(stage, "Date & Time: ", "dd MMM yyyy - HH:mm:ss");
+
         Scene homeScene = buildHomeScene(stage);
         Scene userScene = buildUserScene(stage, homeScene);
         Scene adminScene = buildAdminScene(stage, homeScene);
@@ -37,7 +51,7 @@ public class Main extends Application {
         ((Button) homeScene.lookup("#userBtn")).setOnAction(e -> stage.setScene(userScene));
         ((Button) homeScene.lookup("#adminBtn")).setOnAction(e -> {
             stage.setScene(adminScene);
-            checkOverdue(stage);
+            showOverdueAlerts(stage);
         });
 
         stage.setScene(homeScene);
@@ -80,7 +94,7 @@ public class Main extends Application {
         Label expiryLabel = new Label("Expiry: —");
 
         startDate.valueProperty().addListener((obs, o, n) -> {
-            if (n != null) expiryLabel.setText("Expiry: " + n.plusMonths(1).format(DF));
+            if (n != null) expiryLabel.setText("Expiry: " + DATES.format(n.plusMonths(1)));
             else expiryLabel.setText("Expiry: —");
         });
 
@@ -89,15 +103,13 @@ public class Main extends Application {
         Button searchBtn = createStyledButton("Search");
         Button resetBtn = createStyledButton("Reset");
 
-        FilteredList<UserRecord> filtered = new FilteredList<>(userRecords, b -> true);
+        FilteredList<UserRecord> filtered = new FilteredList<>(library.loans(), b -> true);
 
-        searchBtn.setOnAction(e -> {
-            String term = searchField.getText().toLowerCase();
-            filtered.setPredicate(r -> r.getName().toLowerCase().contains(term) ||
-                    r.getUserId().toLowerCase().contains(term) ||
-                    r.getBookName().toLowerCase().contains(term) ||
-                    r.getBookId().toLowerCase().contains(term));
-        });
+        Runnable applySearch = () -> {
+            SearchIndex<UserRecord>.Hits hits = library.search(searchField.getText());
+            filtered.setPredicate(hits == null ? r -> true : hits);
+        };
+        searchBtn.setOnAction(e -> applySearch.run());
 
         resetBtn.setOnAction(e -> {
             filtered.setPredicate(r -> true);
@@ -106,21 +118,24 @@ public class Main extends Application {
 
         TableView<UserRecord> table = new TableView<>(filtered);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         table.getColumns().addAll(
-                createColumn("Name", "name"),
-                createColumn("User ID", "userId"),
-                createColumn("Book Name", "bookName"),
-                createColumn("Book ID", "bookId"),
-                dateColumn("Start Date", UserRecord::getStart),
-                dateColumn("Expiry Date", UserRecord::getExpiry)
+                Columns.of("Name", UserRecord::nameProperty),
+                Columns.of("User ID", UserRecord::userIdProperty),
+                Columns.of("Book Name", UserRecord::bookNameProperty),
+                Columns.of("Book ID", UserRecord::bookIdProperty),
+                dateColumn("Start Date", UserRecord::startProperty),
+                dateColumn("Expiry Date", UserRecord::expiryProperty)
         );
 
         Button add = createStyledButton("Add");
         Button update = createStyledButton("Update");
         Button delete = createStyledButton("Delete");
         Button exit = createStyledButton("Exit");
+        Button importBtn = createStyledButton("Import CSV");
+        Button exportBtn = createStyledButton("Export CSV");
 
-        HBox buttons = new HBox(10, add, update, delete, exit);
+        HBox buttons = new HBox(10, add, update, delete, importBtn, exportBtn, exit);
         buttons.setPadding(new Insets(10));
 
         Runnable clear = () -> {
@@ -131,27 +146,16 @@ public class Main extends Application {
         add.setOnAction(e -> {
             if (fieldsValid(nameField, idField, bookName, bookId, startDate)) {
                 String newUserId = idField.getText().trim();
-                boolean exists = userRecords.stream().anyMatch(u -> u.getUserId().equalsIgnoreCase(newUserId));
-
-                if (exists) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Duplicate User ID");
-                    alert.setHeaderText("User ID already exists");
-                    alert.setContentText("A user with ID '" + newUserId + "' already exists. Please use a different ID.");
-                    alert.showAndWait();
-                    try (BufferedWriter bw = new BufferedWriter(new FileWriter("admin_alerts.txt", true))) {
-                        bw.write("Duplicate User ID: " + newUserId + " by " + nameField.getText() + " on " + LocalDate.now());
-                        bw.newLine();
-                    } catch (IOException ex) {
-                        ex.printStackTrace();
-                    }
-                    return;
-                }
-
-                userRecords.add(new UserRecord(
+                LoanService.Checkout result = library.addLoan(new UserRecord(
                         nameField.getText(), newUserId,
                         bookName.getText(), bookId.getText(),
                         startDate.getValue(), startDate.getValue().plusMonths(1)));
+                if (result != LoanService.Checkout.OK) {
+                    rejectLoan(result, newUserId, bookId.getText());
+                    return;
+                }
+                saveLoans();
+                applySearch.run();
                 clear.run();
             }
         });
@@ -159,24 +163,41 @@ public class Main extends Application {
         update.setOnAction(e -> {
             var selected = table.getSelectionModel().getSelectedItem();
             if (selected != null && fieldsValid(nameField, idField, bookName, bookId, startDate)) {
-                selected.setName(nameField.getText());
-                selected.setUserId(idField.getText());
-                selected.setBookName(bookName.getText());
-                selected.setBookId(bookId.getText());
-                selected.setStart(startDate.getValue());
-                selected.setExpiry(startDate.getValue().plusMonths(1));
-                table.refresh();
+                String newUserId = idField.getText().trim();
+                LocalDate oldExpiry = selected.getExpiry();
+                LoanService.Checkout result = library.updateLoan(selected, nameField.getText(), newUserId,
+                        bookName.getText(), bookId.getText(), startDate.getValue());
+                if (result != LoanService.Checkout.OK) {
+                    rejectLoan(result, newUserId, bookId.getText());
+                    return;
+                }
+                overdueMonitor.update(selected, oldExpiry);
+                saveLoans();
+                applySearch.run();
                 clear.run();
             }
         });
 
         delete.setOnAction(e -> {
-            var selected = table.getSelectionModel().getSelectedItem();
-            if (selected != null) userRecords.remove(selected);
+            List<UserRecord> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
+            if (!selected.isEmpty()) {
+                library.removeLoans(selected);
+                saveLoans();
+            }
         });
 
         exit.setOnAction(e -> stage.setScene(back));
 
+        importBtn.setOnAction(e -> importCsv(stage, "Loans", LoanService::loanFromCsv, result -> {
+            int added = library.importLoans(result);
+            saveLoans();
+            applySearch.run();
+            return added;
+        }));
+        exportBtn.setOnAction(e -> exportCsv(stage, "Loans", library.loans(), r -> new String[]{
+                r.getName(), r.getUserId(), r.getBookName(), r.getBookId(),
+                DATES.format(r.getStart()), DATES.format(r.getExpiry())}));
+
         table.getSelectionModel().selectedItemProperty().addListener((o, oldVal, newVal) -> {
             if (newVal != null) {
                 nameField.setText(newVal.getName());
@@ -184,7 +205,7 @@ public class Main extends Application {
                 bookName.setText(newVal.getBookName());
                 bookId.setText(newVal.getBookId());
                 startDate.setValue(newVal.getStart());
-                expiryLabel.setText("Expiry: " + newVal.getExpiry().format(DF));
+                expiryLabel.setText("Expiry: " + DATES.format(newVal.getExpiry()));
             }
         });
 
@@ -220,30 +241,52 @@ public class Main extends Application {
         TextField authorField = new TextField(); authorField.setPromptText("Author");
         TextField bookIdField = new TextField(); bookIdField.setPromptText("Book ID");
 
-        TableView<Book> table = new TableView<>(books);
+        TableView<Book> table = new TableView<>(library.books());
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         table.getColumns().addAll(
-                createColumn("Title", "title"),
-                createColumn("Author", "author"),
-                createColumn("Book ID", "bookId")
+                Columns.of("Title", Book::titleProperty),
+                Columns.of("Author", Book::authorProperty),
+                Columns.of("Book ID", Book::bookIdProperty),
+                Columns.<Book, Number>of("Available", b -> library.availableProperty(b.getBookId()))
         );
 
         Button add = createStyledButton("Add Book");
         Button check = createStyledButton("Check Date");
+        Button dueSoon = createStyledButton("Due in " + DUE_SOON_DAYS + " Days");
         Button save = createStyledButton("Save to File");
         Button backBtn = createStyledButton("Back");
+        Button importBtn = createStyledButton("Import CSV");
+        Button exportBtn = createStyledButton("Export CSV");
+        alertsBtn = createStyledButton("");
+        refreshAlertCount();
 
         add.setOnAction(e -> {
             if (!titleField.getText().isBlank() &&
                     !authorField.getText().isBlank() &&
                     !bookIdField.getText().isBlank()) {
-                books.add(new Book(titleField.getText(), authorField.getText(), bookIdField.getText()));
+                library.addBook(new Book(titleField.getText(), authorField.getText(), bookIdField.getText()));
                 titleField.clear(); authorField.clear(); bookIdField.clear();
             }
         });
 
         save.setOnAction(e -> saveBooksToFile());
         check.setOnAction(e -> checkOverdue(stage));
+        alertsBtn.setOnAction(e -> showOverdueAlerts(stage));
+        importBtn.setOnAction(e -> importCsv(stage, "Books", LoanService::bookFromCsv, result -> {
+            library.importBooks(result.rows);
+            return result.rows.size();
+        }));
+        exportBtn.setOnAction(e -> exportCsv(stage, "Books", library.books(),
+                b -> new String[]{b.getTitle(), b.getAuthor(), b.getBookId()}));
+        dueSoon.setOnAction(e -> {
+            LocalDate today = LocalDate.now();
+            List<UserRecord> due = library.dueBetween(today, today.plusDays(DUE_SOON_DAYS));
+            if (due.isEmpty()) {
+                new Alert(Alert.AlertType.INFORMATION, "No loans due in the next " + DUE_SOON_DAYS + " days.").showAndWait();
+            } else {
+                showLoanPages(stage, "Due in the next " + DUE_SOON_DAYS + " days", due, "due on ");
+            }
+        });
         backBtn.setOnAction(e -> stage.setScene(back));
 
         GridPane form = new GridPane();
@@ -252,7 +295,7 @@ public class Main extends Application {
         form.addRow(1, new Label("Author:"), authorField);
         form.addRow(2, new Label("Book ID:"), bookIdField);
 
-        VBox content = new VBox(10, form, new HBox(10, add, check, save), table, backBtn);
+        VBox content = new VBox(10, form, new HBox(10, add, check, dueSoon, alertsBtn, save, importBtn, exportBtn), table, backBtn);
         content.setPadding(new Insets(10));
 
         BorderPane root = new BorderPane();
@@ -262,29 +305,156 @@ public class Main extends Application {
         return new Scene(root, 700, 500);
     }
 
+    private void rejectLoan(LoanService.Checkout result, String userId, String bookId) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        switch (result) {
+            case DUPLICATE_USER_ID -> {
+                alert.setTitle("Duplicate User ID");
+                alert.setHeaderText("User ID already exists");
+                alert.setContentText("A user with ID '" + userId + "' already exists. Please use a different ID.");
+            }
+            case UNKNOWN_BOOK -> {
+                alert.setTitle("Unknown Book");
+                alert.setHeaderText("Book ID not in the catalogue");
+                alert.setContentText("No book with ID '" + bookId + "' has been added. Add it on the admin screen first.");
+            }
+            default -> {
+                alert.setTitle("Book Unavailable");
+                alert.setHeaderText("No copy available");
+                alert.setContentText("All " + library.copies(bookId) + " copies of '" + bookId + "' are on loan.");
+            }
+        }
+        alert.showAndWait();
+    }
+
     private void checkOverdue(Stage stage) {
-        LocalDate today = LocalDate.now();
-        List<UserRecord> overdue = userRecords.stream()
-                .filter(r -> r.getExpiry().isBefore(today))
-                .collect(Collectors.toList());
+        List<UserRecord> overdue = library.overdue(LocalDate.now());
 
         if (!overdue.isEmpty()) {
-            String msg = overdue.stream()
-                    .map(r -> r.getName() + " (" + r.getBookName() + ") - expired on " + r.getExpiry().format(DF))
-                    .collect(Collectors.joining("\n"));
-            new Alert(Alert.AlertType.WARNING, "Overdue Books:\n\n" + msg).showAndWait();
+            showLoanPages(stage, "Overdue Books", overdue, "expired on ");
         } else {
             new Alert(Alert.AlertType.INFORMATION, "No overdue records found.").showAndWait();
         }
     }
 
-    private void saveBooksToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("books.txt"))) {
-            for (Book b : books) {
-                writer.write("Title: " + b.getTitle() + ", Author: " + b.getAuthor() + ", Book ID: " + b.getBookId());
-                writer.newLine();
+    private void showOverdueAlerts(Stage stage) {
+        List<UserRecord> batch = overdueMonitor.drain(ALERT_BATCH);
+        int dropped = overdueMonitor.takeDropped();
+        refreshAlertCount();
+        if (batch.isEmpty() && dropped == 0) return;
+        String title = "Newly Overdue" + (dropped > 0 ? " (" + dropped + " more not queued, use Check Date)" : "");
+        showLoanPages(stage, title, batch, "expired on ");
+    }
+
+    private void refreshAlertCount() {
+        if (alertsBtn != null) alertsBtn.setText("New Overdue (" + overdueMonitor.queued() + ")");
+    }
+
+    // Only the visible page is turned into text, however many loans match.
+    private void showLoanPages(Stage owner, String title, List<UserRecord> loans, String datePrefix) {
+        Pagination pages = new Pagination((loans.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        pages.setPageFactory(page -> {
+            ListView<String> list = new ListView<>();
+            for (UserRecord r : loans.subList(page * PAGE_SIZE, Math.min(loans.size(), (page + 1) * PAGE_SIZE))) {
+                list.getItems().add(r.getName() + " (" + r.getBookName() + ") - " + datePrefix + DATES.format(r.getExpiry()));
             }
-            new Alert(Alert.AlertType.INFORMATION, "Book list saved to books.txt").showAndWait();
+            return list;
+        });
+
+        Label header = new Label(title + ": " + loans.size());
+        header.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+        VBox box = new VBox(10, header, pages);
+        box.setPadding(new Insets(10));
+
+        Stage dialog = new Stage();
+        dialog.initOwner(owner);
+        dialog.initModality(Modality.WINDOW_MODAL);
+        dialog.setTitle(title);
+        dialog.setScene(new Scene(box, 500, 450));
+        dialog.showAndWait();
+    }
+
+    @Override
+    public void stop() throws IOException {
+        library.close();
+    }
+
+    private void saveLoans() {
+        try {
+            library.saveLoans();
+        } catch (IOException e) {
+            new Alert(Alert.AlertType.ERROR, "Error saving loans: " + e.getMessage()).showAndWait();
+        }
+    }
+
+    // Parses on a background thread; apply runs on the FX thread with the whole
+    // batch so the list fires a single change, and returns how many rows it kept.
+    private <T> void importCsv(Stage stage, String what, Function<String[], T> mapper,
+                               Function<CsvBatch.Result<T>, Integer> apply) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import " + what);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv", "*.txt"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) return;
+
+        Task<CsvBatch.Result<T>> task = new Task<>() {
+            @Override
+            protected CsvBatch.Result<T> call() throws IOException {
+                return CsvBatch.read(file.toPath(), mapper);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            CsvBatch.Result<T> result = task.getValue();
+            int added = apply.apply(result);
+            String msg = "Imported " + added + " " + what.toLowerCase() + ".";
+            if (!result.rejected.isEmpty()) {
+                Path report = Paths.get(file.getPath() + ".rejected.txt");
+                try {
+                    CsvBatch.writeRejected(report, result.rejected);
+                    msg += "\nRejected " + result.rejected.size() + " rows, see " + report;
+                } catch (IOException ex) {
+                    msg += "\nRejected " + result.rejected.size() + " rows (report not written: " + ex.getMessage() + ")";
+                }
+            }
+            new Alert(Alert.AlertType.INFORMATION, msg).showAndWait();
+        });
+        task.setOnFailed(e -> new Alert(Alert.AlertType.ERROR, "Import failed: " + task.getException().getMessage()).showAndWait());
+        runInBackground(task, "csv-import");
+    }
+
+    private <T> void exportCsv(Stage stage, String what, List<T> items, Function<T, String[]> fields) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + what);
+        chooser.setInitialFileName(what.toLowerCase() + ".csv");
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        List<String[]> rows = new ArrayList<>(items.size());
+        for (T item : items) rows.add(fields.apply(item));
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws IOException {
+                CsvBatch.write(file.toPath(), rows, r -> r);
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> new Alert(Alert.AlertType.INFORMATION,
+                "Exported " + rows.size() + " " + what.toLowerCase() + " to " + file).showAndWait());
+        task.setOnFailed(e -> new Alert(Alert.AlertType.ERROR, "Export failed: " + task.getException().getMessage()).showAndWait());
+        runInBackground(task, "csv-export");
+    }
+
+    private static void runInBackground(Task<?> task, String name) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+
+    private void saveBooksToFile() {
+        try {
+            library.saveBooks();
+            new Alert(Alert.AlertType.INFORMATION, "Book list saved to books.dat").showAndWait();
         } catch (IOException e) {
             new Alert(Alert.AlertType.ERROR, "Error saving file: " + e.getMessage()).showAndWait();
         }
@@ -301,28 +471,14 @@ public class Main extends Application {
     }
 
     private Label createDateTimeLabel() {
-        Label dateTimeLabel = new Label();
+        Label dateTimeLabel = clock.createLabel();
         dateTimeLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd MMM yyyy - HH:mm:ss");
-
-        Timeline clock = new Timeline(new KeyFrame(Duration.ZERO, e -> {
-            dateTimeLabel.setText("Date & Time: " + LocalDateTime.now().format(dtf));
-        }), new KeyFrame(Duration.seconds(1)));
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
-
         return dateTimeLabel;
     }
 
-    private <T> TableColumn<T, String> createColumn(String title, String prop) {
-        TableColumn<T, String> col = new TableColumn<>(title);
-        col.setCellValueFactory(new PropertyValueFactory<>(prop));
-        return col;
-    }
-
-    private <T> TableColumn<T, String> dateColumn(String title, java.util.function.Function<T, LocalDate> getter) {
-        TableColumn<T, String> col = new TableColumn<>(title);
-        col.setCellValueFactory(cell -> new SimpleStringProperty(getter.apply(cell.getValue()).format(DF)));
+    private <T> TableColumn<T, LocalDate> dateColumn(String title, Function<T, ObjectProperty<LocalDate>> property) {
+        TableColumn<T, LocalDate> col = Columns.of(title, property);
+        col.setCellFactory(DATES.cells());
         return col;
     }
 
@@ -331,50 +487,6 @@ public class Main extends Application {
                 && !d.getText().isBlank() && dp.getValue() != null;
     }
 
-    public static class Book {
-        private final SimpleStringProperty title = new SimpleStringProperty();
-        private final SimpleStringProperty author = new SimpleStringProperty();
-        private final SimpleStringProperty bookId = new SimpleStringProperty();
-
-        public Book(String t, String a, String id) {
-            title.set(t);
-            author.set(a);
-            bookId.set(id);
-        }
-
-        public String getTitle() { return title.get(); }
-        public String getAuthor() { return author.get(); }
-        public String getBookId() { return bookId.get(); }
-    }
-
-    public static class UserRecord {
-        private final SimpleStringProperty name = new SimpleStringProperty();
-        private final SimpleStringProperty userId = new SimpleStringProperty();
-        private final SimpleStringProperty bookName = new SimpleStringProperty();
-        private final SimpleStringProperty bookId = new SimpleStringProperty();
-        private final ObjectProperty<LocalDate> start = new SimpleObjectProperty<>();
-        private final ObjectProperty<LocalDate> expiry = new SimpleObjectProperty<>();
-
-        public UserRecord(String name, String userId, String bookName, String bookId, LocalDate start, LocalDate expiry) {
-            this.name.set(name); this.userId.set(userId); this.bookName.set(bookName);
-            this.bookId.set(bookId); this.start.set(start); this.expiry.set(expiry);
-        }
-
-        public String getName() { return name.get(); }
-        public String getUserId() { return userId.get(); }
-        public String getBookName() { return bookName.get(); }
-        public String getBookId() { return bookId.get(); }
-        public LocalDate getStart() { return start.get(); }
-        public LocalDate getExpiry() { return expiry.get(); }
-
-        public void setName(String v) { name.set(v); }
-        public void setUserId(String v) { userId.set(v); }
-        public void setBookName(String v) { bookName.set(v); }
-        public void setBookId(String v) { bookId.set(v); }
-        public void setStart(LocalDate v) { start.set(v); }
-        public void setExpiry(LocalDate v) { expiry.set(v); }
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,86 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Headless batch runs over the data files, for a server with no display:
+ *
+ * <pre>
+ *   java application.NightlyBatch overdue [dir]   writes dir/overdue.csv
+ *   java application.NightlyBatch billing [dir]   prints the open bill and the month's sales
+ *   java application.NightlyBatch receipts [dir]  reprints today's bills into dir/receipts-yyyy-mm-dd
+ * </pre>
+ */
+public class NightlyBatch {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) usage();
+        Path dir = Paths.get(args.length == 2 ? args[1] : "");
+        switch (args[0]) {
+            case "overdue" -> overdue(dir);
+            case "billing" -> billing(dir);
+            case "receipts" -> receipts(dir);
+            default -> usage();
+        }
+    }
+
+    private static void overdue(Path dir) throws IOException {
+        try (LoanService library = new LoanService(dir)) {
+            library.load();
+            List<UserRecord> overdue = library.overdue(LocalDate.now());
+            Path out = dir.resolve("overdue.csv");
+            CsvBatch.write(out, overdue, r -> new String[]{r.getName(), r.getUserId(), r.getBookName(),
+                    r.getBookId(), dateField(r.getStart()), dateField(r.getExpiry())});
+            System.out.println(overdue.size() + " of " + library.loans().size() + " loans overdue, written to " + out);
+        }
+    }
+
+    private static String dateField(LocalDate d) {
+        return d == null ? "" : LoanService.DATE_FORMAT.format(d);
+    }
+
+    private static void billing(Path dir) throws IOException {
+        try (BillingService bill = new BillingService(dir.resolve("bill.dat"))) {
+            bill.load();
+            printBilling(bill);
+        }
+    }
+
+    private static void printBilling(BillingService bill) throws IOException {
+        BillTotals totals = bill.totals();
+        System.out.println("Items: " + totals.getLineCount() + "   Quantity: " + totals.getQuantity()
+                + "   Total Bill: ₹" + totals.getTotal());
+
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        SalesLedger ledger = bill.ledger();
+        for (SalesLedger.Sales day : ledger.daily(monthStart, today)) {
+            System.out.println(day.day + "   Bills: " + day.bills + "   Quantity: " + day.quantity
+                    + "   Revenue: ₹" + day.revenue);
+        }
+        SalesLedger.Sales month = ledger.total(monthStart, today);
+        System.out.println("Month to date   Bills: " + month.bills + "   Quantity: " + month.quantity
+                + "   Revenue: ₹" + month.revenue);
+        for (SalesLedger.ProductSales p : ledger.topProducts(monthStart, today, 10)) {
+            System.out.println("  " + p.name + "   Quantity: " + p.quantity + "   Revenue: ₹" + p.revenue);
+        }
+    }
+
+    private static void receipts(Path dir) throws IOException {
+        LocalDate today = LocalDate.now();
+        Path out = dir.resolve("receipts-" + today);
+        try (SalesLedger ledger = SalesLedger.open(dir.resolve("sales.ledger"))) {
+            int n = ReceiptRenderer.renderAll(ledger.bills(today, today), out);
+            System.out.println(n + " receipts written to " + out);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: NightlyBatch overdue|billing|receipts [dir]");
+        System.exit(2);
+    }
+}
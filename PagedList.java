@@ -0,0 +1,104 @@
+package application;
+
+import javafx.collections.ObservableListBase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only list over an {@link ArchiveStore} for a TableView. Rows are
+ * fetched a page at a time as the table asks for them and kept in a small
+ * LRU cache, so only the pages around the viewport are on the heap. The sort
+ * order and search matches come from the store; changing either replaces
+ * the whole list in one change. FX thread only.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    private static final int PAGE = 256;
+    private static final int MAX_PAGES = 64;
+
+    private final ArchiveStore<T> store;
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(MAX_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private int[] order;
+    private BitSet matches;
+    private int[] rows;
+    private int size;
+
+    public PagedList(ArchiveStore<T> store) {
+        this.store = store;
+        size = store.rows();
+    }
+
+    /** Shows rows in this order of store row numbers; null for file order. */
+    public void setOrder(int[] order) {
+        this.order = order;
+        refilter();
+    }
+
+    /** Shows only these store rows; null for all. */
+    public void setMatches(BitSet matches) {
+        this.matches = matches;
+        refilter();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int page = index / PAGE;
+        List<T> items = pages.get(page);
+        if (items == null) {
+            int from = page * PAGE;
+            int[] rowNumbers = new int[Math.min(PAGE, size - from)];
+            for (int i = 0; i < rowNumbers.length; i++) rowNumbers[i] = row(from + i);
+            try {
+                items = store.read(rowNumbers);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pages.put(page, items);
+        }
+        return items.get(index - page * PAGE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int row(int index) {
+        if (rows != null) return rows[index];
+        return order != null ? order[index] : index;
+    }
+
+    private void refilter() {
+        int oldSize = size;
+        if (matches == null) {
+            rows = null;
+            size = store.rows();
+        } else {
+            rows = new int[matches.cardinality()];
+            int n = 0;
+            if (order == null) {
+                for (int r = matches.nextSetBit(0); r >= 0; r = matches.nextSetBit(r + 1)) rows[n++] = r;
+            } else {
+                for (int r : order) if (matches.get(r)) rows[n++] = r;
+            }
+            size = n;
+        }
+        pages.clear();
+        beginChange();
+        if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, null));
+        if (size > 0) nextAdd(0, size);
+        endChange();
+    }
+}
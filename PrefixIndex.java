@@ -0,0 +1,88 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Sorted prefix index over a name field. Each item is filed under its whole
+ * lowercase name and under every word in it, so "ju" finds "Apple Juice".
+ * Adds and removes are picked up from the bound list; renames made through a
+ * setter must be reported with {@link #update(Object)}.
+ */
+public class PrefixIndex<T> {
+
+    private final NavigableMap<String, List<T>> byToken = new TreeMap<>();
+    private final Map<T, List<String>> tokensOf = new IdentityHashMap<>();
+    private final Function<T, String> name;
+
+    public PrefixIndex(Function<T, String> name) {
+        this.name = name;
+    }
+
+    public static <T> PrefixIndex<T> bind(ObservableList<T> list, Function<T, String> name) {
+        PrefixIndex<T> index = new PrefixIndex<>(name);
+        list.forEach(index::add);
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                c.getRemoved().forEach(index::remove);
+                c.getAddedSubList().forEach(index::add);
+            }
+        });
+        return index;
+    }
+
+    public void add(T item) {
+        if (tokensOf.containsKey(item)) return;
+        List<String> tokens = tokenize(name.apply(item));
+        tokensOf.put(item, tokens);
+        for (String t : tokens) byToken.computeIfAbsent(t, k -> new ArrayList<>(1)).add(item);
+    }
+
+    public void remove(T item) {
+        List<String> tokens = tokensOf.remove(item);
+        if (tokens == null) return;
+        for (String t : tokens) {
+            List<T> items = byToken.get(t);
+            items.removeIf(i -> i == item);
+            if (items.isEmpty()) byToken.remove(t);
+        }
+    }
+
+    public void update(T item) {
+        remove(item);
+        add(item);
+    }
+
+    /** Returns the items with a name or word starting with the prefix, or null for a blank prefix. */
+    public Set<T> query(String prefix) {
+        String p = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (p.isEmpty()) return null;
+        Set<T> hits = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<T> items : byToken.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+            hits.addAll(items);
+        }
+        return hits;
+    }
+
+    private static List<String> tokenize(String name) {
+        String lower = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>(2);
+        tokens.add(lower);
+        for (String word : lower.split("\\s+")) {
+            if (!word.isEmpty() && !tokens.contains(word)) tokens.add(word);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,56 @@
+package application;
+
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.nio.file.Path;
+
+public class Product {
+    private final StringProperty name;
+    private final IntegerProperty quantity;
+    private final DoubleProperty price;
+    private final DoubleBinding total;
+
+    // Snapshot format of bill.dat. bill.txt is only the printed receipt, and
+    // is never read back: its columns round prices and squeeze spaces.
+    public static final ChangeJournal.Format<Product> FORMAT = new BinaryFormat<>(0x42494C4C,
+            (out, p) -> {
+                out.putString(p.getName());
+                out.putInt(p.getQuantity());
+                out.putDouble(p.getPrice());
+            },
+            in -> new Product(in.getString(), in.getInt(), in.getDouble()));
+
+    public Product(String name, int quantity, double price) {
+        this.name = new SimpleStringProperty(name);
+        this.quantity = new SimpleIntegerProperty(quantity);
+        this.price = new SimpleDoubleProperty(price);
+        this.total = this.price.multiply(this.quantity);
+    }
+
+    public static ChangeJournal<Product> journal(Path file) {
+        return new ChangeJournal<>(file,
+                p -> new String[]{p.getName(), String.valueOf(p.getQuantity()), String.valueOf(p.getPrice())},
+                f -> new Product(f[0], Integer.parseInt(f[1]), Double.parseDouble(f[2])),
+                FORMAT);
+    }
+
+    public String getName() { return name.get(); }
+    public int getQuantity() { return quantity.get(); }
+    public double getPrice() { return price.get(); }
+    public double getTotal() { return total.get(); }
+
+    public void setName(String name) { this.name.set(name); }
+    public void setQuantity(int quantity) { this.quantity.set(quantity); }
+    public void setPrice(double price) { this.price.set(price); }
+
+    public StringProperty nameProperty() { return name; }
+    public IntegerProperty quantityProperty() { return quantity; }
+    public DoubleProperty priceProperty() { return price; }
+    public DoubleBinding totalProperty() { return total; }
+}
@@ -0,0 +1,194 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Writes bill receipts in the bill.txt layout. Column positions, the header
+ * and the rules are fixed up front; numbers are written digit by digit into
+ * a reused buffer instead of going through String.format, and the text is
+ * encoded as UTF-8 straight into a FileChannel, whatever the platform
+ * charset. One renderer is not thread-safe; {@link #renderAll} gives each
+ * worker its own.
+ */
+public class ReceiptRenderer {
+
+    static final String RULE = "--------------------------------------------------------";
+
+    private static final String NL = System.lineSeparator();
+    // S.No, Product, Quantity, Price, Total: left-aligned, one space apart.
+    private static final int[] WIDTHS = {5, 15, 10, 10, 10};
+    private static final String COLUMNS = columns("S.No", "Product", "Quantity", "Price", "Total");
+    private static final String TOP = "======= BILL RECEIPT =======\n";
+    private static final String BOTTOM = "============================\n";
+
+    private final StringBuilder text = new StringBuilder(4096);
+    private final char[] digits = new char[20];
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] chars = new char[4096];
+    private ByteBuffer bytes = ByteBuffer.allocate(12288);
+
+    /** Writes the current bill as printed now. */
+    public void write(Path file, List<Product> items, LocalDateTime when) throws IOException {
+        header(when);
+        long totalPaise = 0;
+        for (int i = 0; i < items.size(); i++) {
+            Product p = items.get(i);
+            long price = BillTotals.toPaise(p.getPrice());
+            line(i + 1, p.getName(), p.getQuantity(), price);
+            totalPaise += p.getQuantity() * price;
+        }
+        footer(totalPaise);
+        flush(file);
+    }
+
+    /** Writes a bill from the sales ledger as it was printed at checkout. */
+    public void write(Path file, SalesLedger.Bill bill) throws IOException {
+        header(bill.time);
+        long totalPaise = 0;
+        for (int i = 0; i < bill.lines(); i++) {
+            line(i + 1, bill.name(i), bill.quantity(i), bill.pricePaise(i));
+            totalPaise += bill.quantity(i) * bill.pricePaise(i);
+        }
+        footer(totalPaise);
+        flush(file);
+    }
+
+    /**
+     * Writes each bill to dir/receipt-N.txt, N counting from 1, on the
+     * common fork-join pool. Returns the number written.
+     */
+    public static int renderAll(List<SalesLedger.Bill> bills, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        int workers = Math.min(bills.size(), Runtime.getRuntime().availableProcessors() * 2);
+        int width = String.valueOf(bills.size()).length();
+        try {
+            IntStream.range(0, workers).parallel().forEach(w -> {
+                ReceiptRenderer renderer = new ReceiptRenderer();
+                for (int i = w; i < bills.size(); i += workers) {
+                    String n = String.valueOf(i + 1);
+                    String name = "receipt-" + "0".repeat(width - n.length()) + n + ".txt";
+                    try {
+                        renderer.write(dir.resolve(name), bills.get(i));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return bills.size();
+    }
+
+    private void header(LocalDateTime when) {
+        text.setLength(0);
+        text.append(TOP).append("Date: ");
+        pad2(when.getDayOfMonth()).append('-');
+        pad2(when.getMonthValue()).append('-');
+        appendLong(when.getYear()).append(' ');
+        pad2(when.getHour()).append(':');
+        pad2(when.getMinute()).append(':');
+        pad2(when.getSecond()).append("\n\n");
+        text.append(COLUMNS).append(RULE).append('\n');
+    }
+
+    private void line(int serial, String name, int quantity, long pricePaise) {
+        int at = text.length();
+        appendLong(serial);
+        endColumn(at, 0);
+        at = text.length();
+        text.append(name);
+        endColumn(at, 1);
+        at = text.length();
+        appendLong(quantity);
+        endColumn(at, 2);
+        at = text.length();
+        appendAmount(pricePaise);
+        endColumn(at, 3);
+        at = text.length();
+        appendAmount(quantity * pricePaise);
+        endColumn(at, 4);
+        text.append(NL);
+    }
+
+    private void footer(long totalPaise) {
+        text.append(RULE).append('\n').append("Grand Total: ₹");
+        appendAmount(totalPaise);
+        text.append(NL).append(BOTTOM);
+    }
+
+    // Pads a value that started at from out to its column width, as %-Ns
+    // does, then adds the gap before the next column.
+    private void endColumn(int from, int col) {
+        for (int n = text.length() - from; n < WIDTHS[col]; n++) text.append(' ');
+        if (col < WIDTHS.length - 1) text.append(' ');
+    }
+
+    private StringBuilder pad2(int v) {
+        return text.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+    }
+
+    private StringBuilder appendLong(long v) {
+        if (v < 0) {
+            text.append('-');
+            v = -v;
+        }
+        int i = digits.length;
+        do {
+            digits[--i] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0);
+        return text.append(digits, i, digits.length - i);
+    }
+
+    private void appendAmount(long paise) {
+        if (paise < 0) text.append('-');
+        long abs = Math.abs(paise);
+        appendLong(abs / 100).append('.');
+        pad2((int) (abs % 100));
+    }
+
+    private void flush(Path file) throws IOException {
+        int len = text.length();
+        if (chars.length < len) chars = new char[len * 2];
+        text.getChars(0, len, chars, 0);
+        // Three bytes per char covers any UTF-8 output, so one pass always fits.
+        if (bytes.capacity() < len * 3) bytes = ByteBuffer.allocate(len * 6);
+        bytes.clear();
+        encoder.reset();
+        CoderResult r = encoder.encode(CharBuffer.wrap(chars, 0, len), bytes, true);
+        if (r.isUnderflow()) r = encoder.flush(bytes);
+        if (!r.isUnderflow()) r.throwException();
+        bytes.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) ch.write(bytes);
+        }
+    }
+
+    private static String columns(String... titles) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < titles.length; i++) {
+            sb.append(titles[i]);
+            for (int n = titles[i].length(); n < WIDTHS[i]; n++) sb.append(' ');
+            if (i < titles.length - 1) sb.append(' ');
+        }
+        return sb.append(NL).toString();
+    }
+}
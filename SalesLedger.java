@@ -0,0 +1,416 @@
+package application;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only history of completed bills in sales.ledger. Each bill is one
+ * frame holding its date and fixed-size line records (product id, quantity,
+ * price in paise); product names are written once, in their own frame, the
+ * first time they are sold. Frames carry a length and CRC, as in
+ * ChangeJournal, so a torn append is cut off when the ledger is opened.
+ *
+ * Opening scans the file once and keeps per-day totals and the offset of
+ * every bill, so daily and period totals never touch the file and product
+ * rankings read only the line records of the days asked for, through a
+ * read-only mapping. The mapping is limited to 2 GB, several decades of
+ * counter sales. A mapped file cannot be truncated on Windows, so the file
+ * is only ever cut short while opening, before it is mapped.
+ */
+public class SalesLedger implements Closeable {
+
+    private static final int MAGIC = 0x53414C45;
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final byte PRODUCT = 1, BILL = 2;
+    private static final int LINE_BYTES = 16;
+    private static final int BILL_FIXED = 1 + 4 + 8 + 4;
+    private static final int CHUNK = 1 << 20;
+
+    /** Totals for one day, or for a whole period. */
+    public static final class Sales {
+        public final LocalDate day;
+        public final int bills;
+        public final long quantity;
+        public final BigDecimal revenue;
+
+        Sales(LocalDate day, int bills, long quantity, long revenuePaise) {
+            this.day = day;
+            this.bills = bills;
+            this.quantity = quantity;
+            this.revenue = BigDecimal.valueOf(revenuePaise, 2);
+        }
+    }
+
+    public static final class ProductSales {
+        public final String name;
+        public final long quantity;
+        public final BigDecimal revenue;
+
+        ProductSales(String name, long quantity, long revenuePaise) {
+            this.name = name;
+            this.quantity = quantity;
+            this.revenue = BigDecimal.valueOf(revenuePaise, 2);
+        }
+    }
+
+    /** One recorded bill, for reprinting. */
+    public static final class Bill {
+        public final LocalDateTime time;
+        private final String[] names;
+        private final int[] quantities;
+        private final long[] pricesPaise;
+
+        Bill(LocalDateTime time, String[] names, int[] quantities, long[] pricesPaise) {
+            this.time = time;
+            this.names = names;
+            this.quantities = quantities;
+            this.pricesPaise = pricesPaise;
+        }
+
+        public int lines() {
+            return names.length;
+        }
+
+        public String name(int line) {
+            return names[line];
+        }
+
+        public int quantity(int line) {
+            return quantities[line];
+        }
+
+        public long pricePaise(int line) {
+            return pricesPaise[line];
+        }
+    }
+
+    private static final class Day {
+        int bills;
+        long quantity;
+        long revenuePaise;
+        int[] billIds = new int[4];
+
+        void add(int bill, long qty, long paise) {
+            if (bills == billIds.length) billIds = Arrays.copyOf(billIds, bills * 2);
+            billIds[bills++] = bill;
+            quantity += qty;
+            revenuePaise += paise;
+        }
+    }
+
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private long size;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> productIds = new HashMap<>();
+    private final NavigableMap<Integer, Day> days = new TreeMap<>();
+    private long[] billLines = new long[1024];
+    private int[] billLineCount = new int[1024];
+    private int bills;
+
+    private SalesLedger(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static SalesLedger open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        SalesLedger ledger = new SalesLedger(ch);
+        try {
+            ledger.load();
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+        return ledger;
+    }
+
+    public synchronized int bills() {
+        return bills;
+    }
+
+    /**
+     * Appends one completed bill and syncs it. Lines with the same name as
+     * an earlier product, ignoring case, are filed under that product.
+     */
+    public synchronized void record(LocalDateTime when, List<Product> lines) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(256 + lines.size() * (LINE_BYTES + 64));
+        int firstNew = names.size();
+        int[] ids = new int[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            String name = lines.get(i).getName();
+            Integer id = productIds.get(KeyIndex.normalize(name));
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                productIds.put(KeyIndex.normalize(name), id);
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out = ensure(out, 8 + 1 + 4 + bytes.length);
+                int start = beginFrame(out);
+                out.put(PRODUCT).putInt(bytes.length).put(bytes);
+                endFrame(out, start);
+            }
+            ids[i] = id;
+        }
+
+        int day = (int) when.toLocalDate().toEpochDay();
+        out = ensure(out, 8 + BILL_FIXED + ids.length * LINE_BYTES);
+        int start = beginFrame(out);
+        out.put(BILL).putInt(day).putLong(when.toEpochSecond(ZoneOffset.UTC)).putInt(ids.length);
+        int linesAt = out.position();
+        long quantity = 0, paise = 0;
+        for (int i = 0; i < ids.length; i++) {
+            Product p = lines.get(i);
+            long price = BillTotals.toPaise(p.getPrice());
+            out.putInt(ids[i]).putInt(p.getQuantity()).putLong(price);
+            quantity += p.getQuantity();
+            paise += p.getQuantity() * price;
+        }
+        endFrame(out, start);
+
+        out.flip();
+        long at = size;
+        try {
+            while (out.hasRemaining()) channel.write(out, at + out.position());
+            channel.force(false);
+        } catch (IOException e) {
+            // Blank what may have been written instead of truncating: the
+            // next bill overwrites it, and a zero frame length ends the scan
+            // at the next open, which cuts off whatever is left.
+            try {
+                ByteBuffer zeros = ByteBuffer.allocate(out.limit());
+                while (zeros.hasRemaining()) channel.write(zeros, at + zeros.position());
+            } catch (IOException blank) {
+                e.addSuppressed(blank);
+            }
+            names.subList(firstNew, names.size()).forEach(n -> productIds.remove(KeyIndex.normalize(n)));
+            names.subList(firstNew, names.size()).clear();
+            throw e;
+        }
+        size = at + out.limit();
+        addBill(day, at + linesAt, ids.length, quantity, paise);
+    }
+
+    /** Per-day totals for the days in [from, to] that had sales, in date order. */
+    public synchronized List<Sales> daily(LocalDate from, LocalDate to) {
+        List<Sales> result = new ArrayList<>();
+        for (Map.Entry<Integer, Day> e : range(from, to).entrySet()) {
+            Day d = e.getValue();
+            result.add(new Sales(LocalDate.ofEpochDay(e.getKey()), d.bills, d.quantity, d.revenuePaise));
+        }
+        return result;
+    }
+
+    /** Totals over [from, to]; {@link Sales#day} is null. */
+    public synchronized Sales total(LocalDate from, LocalDate to) {
+        int n = 0;
+        long quantity = 0, paise = 0;
+        for (Day d : range(from, to).values()) {
+            n += d.bills;
+            quantity += d.quantity;
+            paise += d.revenuePaise;
+        }
+        return new Sales(null, n, quantity, paise);
+    }
+
+    /** The best-selling products by revenue over [from, to], then by quantity. */
+    public synchronized List<ProductSales> topProducts(LocalDate from, LocalDate to, int limit) throws IOException {
+        long[] quantity = new long[names.size()];
+        long[] paise = new long[names.size()];
+        ByteBuffer lines = mapped();
+        for (Day d : range(from, to).values()) {
+            for (int b = 0; b < d.bills; b++) {
+                int bill = d.billIds[b];
+                int at = (int) billLines[bill];
+                for (int i = 0; i < billLineCount[bill]; i++, at += LINE_BYTES) {
+                    int id = lines.getInt(at);
+                    long qty = lines.getInt(at + 4);
+                    quantity[id] += qty;
+                    paise[id] += qty * lines.getLong(at + 8);
+                }
+            }
+        }
+        List<Integer> sold = new ArrayList<>();
+        for (int id = 0; id < quantity.length; id++) if (quantity[id] != 0) sold.add(id);
+        sold.sort(Comparator.<Integer>comparingLong(id -> paise[id]).thenComparingLong(id -> quantity[id]).reversed());
+        List<ProductSales> result = new ArrayList<>(Math.min(limit, sold.size()));
+        for (int id : sold.subList(0, Math.min(limit, sold.size()))) {
+            result.add(new ProductSales(names.get(id), quantity[id], paise[id]));
+        }
+        return result;
+    }
+
+    /** The bills recorded on the days in [from, to], in date order, then in order of recording. */
+    public synchronized List<Bill> bills(LocalDate from, LocalDate to) throws IOException {
+        ByteBuffer in = mapped();
+        List<Bill> result = new ArrayList<>();
+        for (Day d : range(from, to).values()) {
+            for (int b = 0; b < d.bills; b++) {
+                int bill = d.billIds[b];
+                int at = (int) billLines[bill];
+                int count = billLineCount[bill];
+                // The time sits ahead of the line count, just before the lines.
+                LocalDateTime time = LocalDateTime.ofEpochSecond(in.getLong(at - 12), 0, ZoneOffset.UTC);
+                String[] lineNames = new String[count];
+                int[] quantities = new int[count];
+                long[] prices = new long[count];
+                for (int i = 0; i < count; i++, at += LINE_BYTES) {
+                    lineNames[i] = names.get(in.getInt(at));
+                    quantities[i] = in.getInt(at + 4);
+                    prices[i] = in.getLong(at + 8);
+                }
+                result.add(new Bill(time, lineNames, quantities, prices));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map = null;
+        channel.close();
+    }
+
+    private NavigableMap<Integer, Day> range(LocalDate from, LocalDate to) {
+        return days.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true);
+    }
+
+    private void load() throws IOException {
+        size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) channel.write(header, HEADER - header.remaining());
+            channel.force(true);
+            size = HEADER;
+            return;
+        }
+        if (size > Integer.MAX_VALUE) throw new IOException("Sales ledger is larger than 2 GB");
+        // Read into the heap rather than mapped, so that a torn tail can be
+        // cut off below.
+        ByteBuffer in = ByteBuffer.allocate(CHUNK);
+        long inStart = 0;
+        int inLen = fill(in, 0);
+        if (inLen < HEADER || in.getInt(0) != MAGIC) throw new IOException("Not a sales ledger");
+        if (in.getInt(4) != VERSION) throw new IOException("Unsupported sales ledger version " + in.getInt(4));
+
+        CRC32 crc = new CRC32();
+        long good = HEADER;
+        while (good + 8 <= size) {
+            if (good + 8 > inStart + inLen) {
+                inStart = good;
+                inLen = fill(in, good);
+            }
+            int at = (int) (good - inStart);
+            int len = in.getInt(at);
+            int sum = in.getInt(at + 4);
+            if (len <= 0 || len > size - good - 8) break;
+            if (at + 8 + len > inLen) {
+                if (in.capacity() < 8 + len) in = ByteBuffer.allocate(8 + len);
+                inStart = good;
+                inLen = fill(in, good);
+                at = 0;
+            }
+            crc.reset();
+            crc.update(in.slice(at + 8, len));
+            if ((int) crc.getValue() != sum) break;
+            index(in, at + 8, good + 8);
+            good += 8 + len;
+        }
+        if (good < size) {
+            channel.truncate(good);
+            channel.force(true);
+            size = good;
+        }
+    }
+
+    // Indexes the frame payload at in[at], which sits at offset in the file.
+    private void index(ByteBuffer in, int at, long offset) throws IOException {
+        byte kind = in.get(at);
+        if (kind == PRODUCT) {
+            byte[] bytes = new byte[in.getInt(at + 1)];
+            in.get(at + 5, bytes);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            productIds.putIfAbsent(KeyIndex.normalize(name), names.size());
+            names.add(name);
+        } else if (kind == BILL) {
+            int day = in.getInt(at + 1);
+            int count = in.getInt(at + 13);
+            long quantity = 0, paise = 0;
+            for (int i = 0, p = at + BILL_FIXED; i < count; i++, p += LINE_BYTES) {
+                long qty = in.getInt(p + 4);
+                quantity += qty;
+                paise += qty * in.getLong(p + 8);
+            }
+            addBill(day, offset + BILL_FIXED, count, quantity, paise);
+        } else {
+            throw new IOException("Unknown sales ledger record " + kind);
+        }
+    }
+
+    private void addBill(int day, long linesAt, int count, long quantity, long paise) {
+        if (bills == billLines.length) {
+            billLines = Arrays.copyOf(billLines, bills * 2);
+            billLineCount = Arrays.copyOf(billLineCount, bills * 2);
+        }
+        billLines[bills] = linesAt;
+        billLineCount[bills] = count;
+        days.computeIfAbsent(day, k -> new Day()).add(bills, quantity, paise);
+        bills++;
+    }
+
+    // The whole file, mapped read-only; remapped after appends.
+    private ByteBuffer mapped() throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Sales ledger is larger than 2 GB");
+        if (map == null || map.capacity() < size) map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        return map;
+    }
+
+    // Reads from the file at from until buf is full or the file ends.
+    private int fill(ByteBuffer buf, long from) throws IOException {
+        buf.clear();
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, from + buf.position()) < 0) break;
+        }
+        return buf.position();
+    }
+
+    private static int beginFrame(ByteBuffer out) {
+        int start = out.position();
+        out.position(start + 8);
+        return start;
+    }
+
+    private static void endFrame(ByteBuffer out, int start) {
+        int len = out.position() - start - 8;
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), start + 8, len);
+        out.putInt(start, len).putInt(start + 4, (int) crc.getValue());
+    }
+
+    private static ByteBuffer ensure(ByteBuffer out, int n) {
+        if (out.remaining() >= n) return out;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + n));
+        return bigger.put(out.flip());
+    }
+}
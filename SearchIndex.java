@@ -0,0 +1,409 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Trigram inverted index for case-insensitive "contains" search over a few
+ * text fields. Queries of three or more characters intersect posting lists
+ * and only verify the survivors; shorter queries scan the pre-lowercased text.
+ * Adds and removes are picked up from the bound list; setter edits must be
+ * reported with {@link #update(Object)}. Ids of removed items are recycled
+ * once compaction has pruned them from the posting lists, so a long session
+ * of adds and deletes does not grow the index.
+ * <p>
+ * Changes are only queued on the mutating thread, a whole list change as one
+ * entry, so loading a large list costs nothing here. They are indexed on a
+ * background thread once the list has been quiet for a moment, and a query
+ * first applies whatever is still queued, so it never misses an earlier
+ * change. Queries and hits may be used from any thread.
+ */
+public class SearchIndex<T> {
+
+    private static final int GRAM = 3;
+    private static final char FIELD_SEP = '\n';
+    private static final byte ADD = 1, REMOVE = 2, UPDATE = 3;
+    private static final long QUIET_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+    private static final ScheduledExecutorService INDEXER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Function<T, String>> fields = new ArrayList<>();
+
+    // Guarded by the queue monitor.
+    private final Object queueLock = new Object();
+    private List<Op<T>> queue = new ArrayList<>();
+    private boolean scheduled;
+    private long lastQueued;
+
+    // Guarded by the lock, and written only while draining the queue.
+    private final Map<T, Integer> ids = new IdentityHashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private String[] texts = new String[64];
+    // Insert count at which each id was last handed out; see Hits.
+    private long[] addedAt = new long[64];
+    private long inserts;
+    private int next;
+    // Removed ids still in posting lists, and ids pruned from them and free
+    // to hand out again.
+    private final IntList dead = new IntList();
+    private final IntList free = new IntList();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The field arrays are copied element by element rather than handed on,
+    // which is what keeps @SafeVarargs true.
+    @SafeVarargs
+    public SearchIndex(Function<T, String>... fields) {
+        for (Function<T, String> f : fields) this.fields.add(f);
+    }
+
+    @SafeVarargs
+    public static <T> SearchIndex<T> bind(ObservableList<T> list, Function<T, String>... fields) {
+        SearchIndex<T> index = new SearchIndex<>();
+        for (Function<T, String> f : fields) index.fields.add(f);
+        index.addAll(list);
+        list.addListener((ListChangeListener<T>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) continue;
+                if (c.wasRemoved()) index.enqueue(REMOVE, new ArrayList<>(c.getRemoved()));
+                if (c.wasAdded()) index.addAll(c.getAddedSubList());
+            }
+        });
+        return index;
+    }
+
+    public void add(T item) {
+        enqueue(ADD, List.of(item));
+    }
+
+    public void addAll(Collection<? extends T> items) {
+        if (!items.isEmpty()) enqueue(ADD, new ArrayList<>(items));
+    }
+
+    public void remove(T item) {
+        enqueue(REMOVE, List.of(item));
+    }
+
+    /**
+     * Re-indexes an edited item under its existing id, so edits do not use up
+     * slots; only the trigrams the edit added or dropped are touched.
+     */
+    public void update(T item) {
+        enqueue(UPDATE, List.of(item));
+    }
+
+    public void clear() {
+        drain(false);
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            postings.clear();
+            Arrays.fill(texts, 0, next, null);
+            next = 0;
+            dead.size = 0;
+            free.size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        drain(false);
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void enqueue(byte kind, List<T> items) {
+        long now = System.nanoTime();
+        synchronized (queueLock) {
+            queue.add(new Op<>(kind, items));
+            lastQueued = now;
+            if (scheduled) return;
+            scheduled = true;
+        }
+        INDEXER.schedule(this::drainWhenQuiet, QUIET_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    private void drainWhenQuiet() {
+        long wait;
+        synchronized (queueLock) {
+            wait = lastQueued + QUIET_NANOS - System.nanoTime();
+        }
+        if (wait > 0) INDEXER.schedule(this::drainWhenQuiet, wait, TimeUnit.NANOSECONDS);
+        else drain(true);
+    }
+
+    // Applies queued changes until the queue is empty. Only the background
+    // drain clears the scheduled flag, and only under the queue monitor, so a
+    // change queued meanwhile always gets a drain of its own.
+    private void drain(boolean background) {
+        lock.writeLock().lock();
+        try {
+            while (true) {
+                List<Op<T>> ops;
+                synchronized (queueLock) {
+                    if (queue.isEmpty()) {
+                        if (background) scheduled = false;
+                        return;
+                    }
+                    ops = queue;
+                    queue = new ArrayList<>();
+                }
+                for (Op<T> op : ops) {
+                    for (T item : op.items) {
+                        if (op.kind == ADD) insert(item);
+                        else if (op.kind == REMOVE) delete(item);
+                        else reindex(item);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(T item) {
+        if (ids.containsKey(item)) return;
+        String text = textOf(item);
+        boolean fresh = free.size == 0;
+        if (fresh && next == texts.length) {
+            texts = Arrays.copyOf(texts, next * 2);
+            addedAt = Arrays.copyOf(addedAt, next * 2);
+        }
+        int id = fresh ? next++ : free.data[--free.size];
+        texts[id] = text;
+        addedAt[id] = ++inserts;
+        ids.put(item, id);
+        // A fresh id is the largest yet and goes on the end of every list,
+        // and both addOnce and insert skip a gram seen earlier in the text.
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf(FIELD_SEP) >= 0) continue;
+            IntList list = postings.computeIfAbsent(gram, g -> new IntList());
+            if (fresh) list.addOnce(id);
+            else list.insert(id);
+        }
+    }
+
+    private void reindex(T item) {
+        Integer id = ids.get(item);
+        if (id == null) {
+            insert(item);
+            return;
+        }
+        String text = textOf(item);
+        if (text.equals(texts[id])) return;
+        Set<String> before = grams(texts[id]);
+        Set<String> after = grams(text);
+        for (String gram : before) {
+            if (after.contains(gram)) continue;
+            IntList list = postings.get(gram);
+            if (list != null && list.remove(id) == 0) postings.remove(gram);
+        }
+        for (String gram : after) {
+            if (!before.contains(gram)) postings.computeIfAbsent(gram, g -> new IntList()).insert(id);
+        }
+        texts[id] = text;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf(FIELD_SEP) < 0) grams.add(gram);
+        }
+        return grams;
+    }
+
+    private void delete(T item) {
+        Integer id = ids.remove(item);
+        if (id == null) return;
+        texts[id] = null;
+        dead.add(id);
+        if (dead.size > 1024 && dead.size > ids.size()) compact();
+    }
+
+    /** Returns the matches, or null when the query is blank and everything matches. */
+    public Hits query(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return null;
+
+        drain(false);
+        lock.readLock().lock();
+        try {
+            return new Hits(match(q), inserts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(String q) {
+        BitSet hits = new BitSet(next);
+        if (q.length() < GRAM) {
+            for (int id = 0; id < next; id++) {
+                if (texts[id] != null && texts[id].contains(q)) hits.set(id);
+            }
+            return hits;
+        }
+
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            IntList list = postings.get(q.substring(i, i + GRAM));
+            if (list == null) return hits;
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.size));
+        IntList smallest = lists.get(0);
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.data[i];
+            if (texts[id] == null) continue;
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) inAll = lists.get(j).contains(id);
+            if (inAll && texts[id].contains(q)) hits.set(id);
+        }
+        return hits;
+    }
+
+    // Drops dead ids from the posting lists and frees them for reuse. Live ids
+    // are never renumbered, so Hits handed out earlier keep answering
+    // correctly for untouched items.
+    private void compact() {
+        postings.values().removeIf(list -> list.retain(texts) == 0);
+        for (int i = 0; i < dead.size; i++) free.add(dead.data[i]);
+        dead.size = 0;
+    }
+
+    // Ids handed out so far, live or not; for tests.
+    int slots() {
+        drain(false);
+        lock.readLock().lock();
+        try {
+            return next;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String textOf(T item) {
+        StringBuilder sb = new StringBuilder();
+        for (Function<T, String> f : fields) {
+            if (sb.length() > 0) sb.append(FIELD_SEP);
+            String v = f.apply(item);
+            if (v != null) sb.append(v.toLowerCase(Locale.ROOT));
+        }
+        return sb.toString();
+    }
+
+    /** Result of a query; usable directly as a FilteredList predicate. */
+    public final class Hits implements Predicate<T> {
+        private final BitSet ids;
+        private final long inserts;
+
+        private Hits(BitSet ids, long inserts) {
+            this.ids = ids;
+            this.inserts = inserts;
+        }
+
+        // An item added after the query may have been given a recycled id
+        // that matched; it is not a hit.
+        @Override
+        public boolean test(T item) {
+            lock.readLock().lock();
+            try {
+                Integer id = SearchIndex.this.ids.get(item);
+                return id != null && ids.get(id) && addedAt[id] <= inserts;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public int size() {
+            return ids.cardinality();
+        }
+    }
+
+    private static final class Op<T> {
+        final byte kind;
+        final List<T> items;
+
+        Op(byte kind, List<T> items) {
+            this.kind = kind;
+            this.items = items;
+        }
+    }
+
+    // Fresh ids are handed out in increasing order, and recycled ids and
+    // updates insert in place, so every posting list stays sorted. The dead
+    // and free lists are plain stacks.
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        void addOnce(int v) {
+            if (size > 0 && data[size - 1] == v) return;
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        void insert(int v) {
+            int at = Arrays.binarySearch(data, 0, size, v);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            System.arraycopy(data, at, data, at + 1, size - at);
+            data[at] = v;
+            size++;
+        }
+
+        int remove(int v) {
+            int at = Arrays.binarySearch(data, 0, size, v);
+            if (at >= 0) System.arraycopy(data, at + 1, data, at, --size - at);
+            return size;
+        }
+
+        int retain(String[] live) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (live[data[i]] != null) data[n++] = data[i];
+            }
+            size = n;
+            return n;
+        }
+
+        boolean contains(int v) {
+            return Arrays.binarySearch(data, 0, size, v) >= 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package application;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class Student {
+    private final StringProperty name, dept, year, course;
+
+    // students.txt: one comma-separated student per line, quoted as CSV where
+    // a field holds a comma, quote or line break, so every row reads back.
+    public static final ChangeJournal.Format<Student> FORMAT = new ChangeJournal.Format<>() {
+        @Override
+        public void read(Path file, Consumer<Student> sink) throws IOException {
+            try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+                for (String[] parts; (parts = reader.next()) != null; ) {
+                    Student s = parse(parts);
+                    if (s != null) sink.accept(s);
+                }
+            }
+        }
+
+        @Override
+        public void write(Path file, List<Student> items) throws IOException {
+            CsvBatch.write(file, items, Student::fields);
+        }
+    };
+
+    public Student(String n, String d, String y, String c) {
+        name = new SimpleStringProperty(n); dept = new SimpleStringProperty(d);
+        year = new SimpleStringProperty(y); course = new SimpleStringProperty(c);
+    }
+
+    public static ChangeJournal<Student> journal(Path file) {
+        return new ChangeJournal<>(file, Student::fields, f -> new Student(f[0], f[1], f[2], f[3]), FORMAT);
+    }
+
+    public static String[] fields(Student s) {
+        return new String[]{s.getName(), s.getDept(), s.getYear(), s.getCourse()};
+    }
+
+    /**
+     * A students.txt row, or null if it does not hold four fields. Trailing
+     * empty fields beyond the fourth, as older files have, are ignored.
+     */
+    public static Student parse(String[] parts) {
+        int n = parts.length;
+        while (n > 4 && parts[n - 1].isEmpty()) n--;
+        return n == 4 ? new Student(parts[0], parts[1], parts[2], parts[3]) : null;
+    }
+
+    public String getName() { return name.get(); }
+    public void setName(String n) { name.set(n); }
+    public String getDept() { return dept.get(); }
+    public void setDept(String d) { dept.set(d); }
+    public String getYear() { return year.get(); }
+    public void setYear(String y) { year.set(y); }
+    public String getCourse() { return course.get(); }
+    public void setCourse(String c) { course.set(c); }
+    public StringProperty nameProperty() { return name; }
+    public StringProperty deptProperty() { return dept; }
+    public StringProperty yearProperty() { return year; }
+    public StringProperty courseProperty() { return course; }
+}
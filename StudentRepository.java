@@ -0,0 +1,149 @@
+package application;
+
+import javafx.beans.Observable;
+import javafx.collections.transformation.FilteredList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Student records without any UI: the list, its search index and the
+ * students.txt journal. The view streams the snapshot in with {@link #read}
+ * on a background thread; headless callers use {@link #load()}. Other
+ * operations are synchronized and, while a view is bound, belong on the FX
+ * thread.
+ */
+public class StudentRepository {
+
+    public static final int LOAD_BATCH = 10_000;
+
+    /** Reports how far {@link #read} has got: characters read of the file size, and rows so far. */
+    public interface Progress {
+        void update(long done, long total, int count);
+    }
+
+    private final BatchList<Student> students = new BatchList<>(s -> new Observable[]{
+            s.nameProperty(), s.deptProperty(), s.yearProperty(), s.courseProperty()});
+    private final SearchIndex<Student> search = SearchIndex.bind(students,
+            Student::getName, Student::getDept, Student::getYear, Student::getCourse);
+    private final Path file;
+    private final ChangeJournal<Student> journal;
+
+    public StudentRepository(Path file) {
+        this.file = file;
+        journal = Student.journal(file);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public BatchList<Student> students() {
+        return students;
+    }
+
+    /**
+     * Parses the snapshot and hands it to batches in lists of up to
+     * {@link #LOAD_BATCH} rows. Touches no shared state, so it may run on any
+     * thread; the caller adds each batch with {@link #addLoaded}.
+     */
+    public int read(Consumer<List<Student>> batches, Progress progress) throws IOException {
+        if (!Files.exists(file)) return 0;
+        long size = Math.max(1, Files.size(file));
+        int count = 0;
+        List<Student> batch = new ArrayList<>(LOAD_BATCH);
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file))) {
+            for (String[] parts; (parts = reader.next()) != null; ) {
+                Student s = Student.parse(parts);
+                if (s != null) {
+                    batch.add(s);
+                    count++;
+                }
+                if (batch.size() == LOAD_BATCH) {
+                    batches.accept(batch);
+                    batch = new ArrayList<>(LOAD_BATCH);
+                    progress.update(reader.charsRead(), size, count);
+                }
+            }
+        }
+        if (!batch.isEmpty()) batches.accept(batch);
+        return count;
+    }
+
+    /** Journal entries written since the snapshot; safe off the FX thread. */
+    public List<ChangeJournal.Change> readJournal() throws IOException {
+        return journal.readJournal();
+    }
+
+    public synchronized void addLoaded(List<Student> batch) {
+        students.addAll(batch);
+    }
+
+    /**
+     * Replays the journal against the complete snapshot and starts recording
+     * changes. If the journal does not fit, the students stay as in the
+     * snapshot and the exception says where the journal was moved.
+     */
+    public synchronized void recover(List<ChangeJournal.Change> changes) throws IOException {
+        journal.recover(changes, students);
+    }
+
+    public synchronized int load() throws IOException {
+        journal.load(students);
+        return students.size();
+    }
+
+    public synchronized void add(Student s) {
+        students.add(s);
+    }
+
+    public synchronized void update(Student s, String name, String dept, String year, String course) {
+        students.batch(() -> {
+            s.setName(name);
+            s.setDept(dept);
+            s.setYear(year);
+            s.setCourse(course);
+        });
+        search.update(s);
+    }
+
+    public synchronized void remove(Collection<Student> selected) {
+        students.removeItems(selected);
+    }
+
+    /** As {@link #remove(Collection)}, hiding large selections in view first. */
+    public synchronized void remove(Collection<Student> selected, FilteredList<Student> view) {
+        students.removeItems(selected, view);
+    }
+
+    public synchronized void importAll(List<Student> rows) {
+        students.addAll(rows);
+    }
+
+    /** Students matching the query, or null for a blank query. Safe from any thread. */
+    public SearchIndex<Student>.Hits search(String query) {
+        return search.query(query);
+    }
+
+    public synchronized void save() throws IOException {
+        journal.commit();
+    }
+
+    /** Folds the journal into students.txt if everything has been saved. */
+    public synchronized void close() throws IOException {
+        journal.compactIfClean();
+    }
+
+    public static Student fromCsv(String[] f) {
+        if (f.length != 4) throw new IllegalArgumentException("expected 4 fields, got " + f.length);
+        for (int i = 0; i < 4; i++) {
+            if (f[i].isBlank()) throw new IllegalArgumentException("field " + (i + 1) + " is empty");
+        }
+        return new Student(f[0].trim(), f[1].trim(), f[2].trim(), f[3].trim());
+    }
+}
@@ -0,0 +1,101 @@
+package application;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * A loan. The library may hold a million of these, so the fields stay plain
+ * until something asks for a property, which in practice is a table cell
+ * showing the row; getters and setters go through the property once it
+ * exists.
+ */
+public class UserRecord {
+    private String nameValue, userIdValue, bookNameValue, bookIdValue;
+    private LocalDate startValue, expiryValue;
+    private StringProperty name, userId, bookName, bookId;
+    private ObjectProperty<LocalDate> start, expiry;
+
+    // Snapshot format of loans.dat; the journal beside it stores dates as ISO
+    // strings, and a missing date as an empty one.
+    public static final ChangeJournal.Format<UserRecord> FORMAT = new BinaryFormat<>(0x4C4F414E,
+            (out, r) -> {
+                out.putString(r.getName());
+                out.putString(r.getUserId());
+                out.putString(r.getBookName());
+                out.putString(r.getBookId());
+                out.putDate(r.getStart());
+                out.putDate(r.getExpiry());
+            },
+            in -> new UserRecord(in.getString(), in.getString(), in.getString(), in.getString(),
+                    in.getDate(), in.getDate()));
+
+    public UserRecord(String name, String userId, String bookName, String bookId, LocalDate start, LocalDate expiry) {
+        nameValue = name; userIdValue = userId; bookNameValue = bookName;
+        bookIdValue = bookId; startValue = start; expiryValue = expiry;
+    }
+
+    public static ChangeJournal<UserRecord> journal(Path snapshot) {
+        return new ChangeJournal<>(snapshot,
+                r -> new String[]{r.getName(), r.getUserId(), r.getBookName(), r.getBookId(),
+                        dateField(r.getStart()), dateField(r.getExpiry())},
+                f -> new UserRecord(f[0], f[1], f[2], f[3], parseDate(f[4]), parseDate(f[5])),
+                FORMAT);
+    }
+
+    private static String dateField(LocalDate d) {
+        return d == null ? "" : d.toString();
+    }
+
+    private static LocalDate parseDate(String s) {
+        return s.isEmpty() ? null : LocalDate.parse(s);
+    }
+
+    public String getName() { return name == null ? nameValue : name.get(); }
+    public String getUserId() { return userId == null ? userIdValue : userId.get(); }
+    public String getBookName() { return bookName == null ? bookNameValue : bookName.get(); }
+    public String getBookId() { return bookId == null ? bookIdValue : bookId.get(); }
+    public LocalDate getStart() { return start == null ? startValue : start.get(); }
+    public LocalDate getExpiry() { return expiry == null ? expiryValue : expiry.get(); }
+
+    public void setName(String v) { if (name == null) nameValue = v; else name.set(v); }
+    public void setUserId(String v) { if (userId == null) userIdValue = v; else userId.set(v); }
+    public void setBookName(String v) { if (bookName == null) bookNameValue = v; else bookName.set(v); }
+    public void setBookId(String v) { if (bookId == null) bookIdValue = v; else bookId.set(v); }
+    public void setStart(LocalDate v) { if (start == null) startValue = v; else start.set(v); }
+    public void setExpiry(LocalDate v) { if (expiry == null) expiryValue = v; else expiry.set(v); }
+
+    public StringProperty nameProperty() {
+        if (name == null) name = new SimpleStringProperty(this, "name", nameValue);
+        return name;
+    }
+
+    public StringProperty userIdProperty() {
+        if (userId == null) userId = new SimpleStringProperty(this, "userId", userIdValue);
+        return userId;
+    }
+
+    public StringProperty bookNameProperty() {
+        if (bookName == null) bookName = new SimpleStringProperty(this, "bookName", bookNameValue);
+        return bookName;
+    }
+
+    public StringProperty bookIdProperty() {
+        if (bookId == null) bookId = new SimpleStringProperty(this, "bookId", bookIdValue);
+        return bookId;
+    }
+
+    public ObjectProperty<LocalDate> startProperty() {
+        if (start == null) start = new SimpleObjectProperty<>(this, "start", startValue);
+        return start;
+    }
+
+    public ObjectProperty<LocalDate> expiryProperty() {
+        if (expiry == null) expiry = new SimpleObjectProperty<>(this, "expiry", expiryValue);
+        return expiry;
+    }
+}
@@ -0,0 +1,56 @@
+package application;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Deterministic rows for the benchmarks, shaped like the real data files. */
+final class BenchData {
+
+    static final LocalDate TODAY = LocalDate.of(2025, 7, 1);
+
+    private static final String[] DEPTS = {"CSE", "ECE", "EEE", "MECH", "CIVIL", "IT"};
+    private static final String[] YEARS = {"1", "2", "3", "4"};
+    private static final String[] COURSES = {"B.Tech", "B.E", "M.Tech", "MBA", "MCA"};
+    private static final String[] TITLES = {"Data Structures", "Operating Systems", "Compiler Design",
+            "Computer Networks", "Digital Logic", "Discrete Mathematics", "Signals and Systems"};
+
+    private BenchData() {
+    }
+
+    // Loans start over the year before TODAY, so roughly one in twelve is overdue.
+    static List<UserRecord> loans(int n) {
+        List<UserRecord> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate start = TODAY.minusDays(i % 365);
+            out.add(new UserRecord("Student " + i, "U" + i, TITLES[i % TITLES.length] + " " + (i % 1000),
+                    "B" + (i % 50_000), start, start.plusDays(30 + i % 3)));
+        }
+        return out;
+    }
+
+    static List<Student> students(int n) {
+        List<Student> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Student("Student " + i, DEPTS[i % DEPTS.length], YEARS[i % YEARS.length],
+                    COURSES[i % COURSES.length]));
+        }
+        return out;
+    }
+
+    static List<Book> books(int n) {
+        List<Book> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Book(TITLES[i % TITLES.length] + " Vol " + i, "Author " + (i % 5000), "B" + i));
+        }
+        return out;
+    }
+
+    static List<Product> products(int n) {
+        List<Product> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Product("Item " + i, 1 + i % 10, 10 + (i % 500) * 0.25));
+        }
+        return out;
+    }
+}
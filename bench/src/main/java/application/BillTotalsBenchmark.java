@@ -0,0 +1,69 @@
+package application;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One quantity edit followed by updateTotalBill: the running {@link BillTotals}
+ * against summing every line again, as the bill screen used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class BillTotalsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private ObservableList<Product> products;
+    private BillTotals totals;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<Product> items = BenchData.products(rows);
+        products = FXCollections.observableArrayList(items);
+        totals = BillTotals.bind(products);
+    }
+
+    @Benchmark
+    public String runningTotal() {
+        Product p = edit();
+        totals.remove(p);
+        p.setQuantity(p.getQuantity() % 10 + 1);
+        totals.add(p);
+        return "Items: " + totals.getLineCount() + "   Quantity: " + totals.getQuantity()
+                + "   Total Bill: ₹" + totals.getTotal();
+    }
+
+    @Benchmark
+    public String recompute() {
+        Product p = edit();
+        p.setQuantity(p.getQuantity() % 10 + 1);
+        double total = 0;
+        for (Product item : products) total += item.getTotal();
+        return String.format("Total Bill: ₹%.2f", total);
+    }
+
+    private Product edit() {
+        next = (next + 7919) % rows;
+        return products.get(next);
+    }
+}
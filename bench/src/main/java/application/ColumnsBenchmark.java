@@ -0,0 +1,103 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.cell.PropertyValueFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One scroll step of a 100k-row student table with a 30-row viewport: every
+ * visible cell asks its column for a value, as TableCell.updateItem does.
+ * Reflective PropertyValueFactory over plain-field rows (the old Student)
+ * against {@link Columns} over property-backed rows. Run with -prof gc for
+ * the allocation per step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class ColumnsBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int VIEWPORT = 30;
+
+    public static class PlainStudent {
+        private final String name, dept, year, course;
+
+        public PlainStudent(String n, String d, String y, String c) {
+            name = n; dept = d; year = y; course = c;
+        }
+
+        public String getName() { return name; }
+        public String getDept() { return dept; }
+        public String getYear() { return year; }
+        public String getCourse() { return course; }
+    }
+
+    private List<PlainStudent> plain;
+    private List<Student> students;
+    private List<TableColumn<PlainStudent, String>> reflective;
+    private List<TableColumn<Student, String>> typed;
+    private int top;
+
+    @Setup
+    public void setup() {
+        plain = new ArrayList<>(ROWS);
+        students = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            plain.add(new PlainStudent("student" + i, "CSE", "2", "B.Tech"));
+            students.add(new Student("student" + i, "CSE", "2", "B.Tech"));
+        }
+        reflective = new ArrayList<>();
+        for (String p : new String[]{"name", "dept", "year", "course"}) {
+            TableColumn<PlainStudent, String> col = new TableColumn<>(p);
+            col.setCellValueFactory(new PropertyValueFactory<>(p));
+            reflective.add(col);
+        }
+        typed = List.of(
+                Columns.of("name", Student::nameProperty),
+                Columns.of("dept", Student::deptProperty),
+                Columns.of("year", Student::yearProperty),
+                Columns.of("course", Student::courseProperty));
+    }
+
+    @Benchmark
+    public long propertyValueFactory() {
+        return step(plain, reflective);
+    }
+
+    @Benchmark
+    public long columnsOf() {
+        return step(students, typed);
+    }
+
+    // Moves the viewport down a row and reads every visible cell.
+    private <S> long step(List<S> rows, List<TableColumn<S, String>> cols) {
+        top = (top + 1) % (ROWS - VIEWPORT);
+        long chars = 0;
+        for (int r = top; r < top + VIEWPORT; r++) {
+            S row = rows.get(r);
+            for (TableColumn<S, String> col : cols) {
+                ObservableValue<String> value = col.getCellValueFactory()
+                        .call(new TableColumn.CellDataFeatures<>(null, col, row));
+                chars += value.getValue().length();
+            }
+        }
+        return chars;
+    }
+}
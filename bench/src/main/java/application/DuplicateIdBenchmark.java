@@ -0,0 +1,56 @@
+package application;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Duplicate user-ID check on Add: the old stream scan against {@link KeyIndex}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class DuplicateIdBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private List<UserRecord> records;
+    private KeyIndex<UserRecord> index;
+    private String present;
+
+    @Setup
+    public void setup() {
+        records = BenchData.loans(rows);
+        index = new KeyIndex<>(UserRecord::getUserId);
+        records.forEach(index::put);
+        present = "u" + (rows / 2);
+    }
+
+    @Benchmark
+    public boolean scanMiss() {
+        return records.stream().anyMatch(u -> u.getUserId().equalsIgnoreCase("U-MISSING"));
+    }
+
+    @Benchmark
+    public boolean indexMiss() {
+        return index.contains("U-MISSING");
+    }
+
+    @Benchmark
+    public boolean indexHit() {
+        return index.contains(present);
+    }
+}
@@ -0,0 +1,54 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** checkOverdue: loans past expiry from the {@link DateIndex} against a full scan. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class OverdueBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private List<UserRecord> records;
+    private DateIndex<UserRecord> index;
+
+    @Setup
+    public void setup() {
+        records = BenchData.loans(rows);
+        index = new DateIndex<>(UserRecord::getExpiry);
+        records.forEach(index::add);
+    }
+
+    @Benchmark
+    public List<UserRecord> index() {
+        return index.before(BenchData.TODAY);
+    }
+
+    @Benchmark
+    public List<UserRecord> scan() {
+        List<UserRecord> overdue = new ArrayList<>();
+        for (UserRecord r : records) {
+            if (r.getExpiry().isBefore(BenchData.TODAY)) overdue.add(r);
+        }
+        return overdue;
+    }
+}
@@ -0,0 +1,132 @@
+package application;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * An end-of-day reprint of eight-line receipts into a temporary directory:
+ * String.format through a FileWriter, as bill.txt used to be written, against
+ * one {@link ReceiptRenderer} in a loop and against
+ * {@link ReceiptRenderer#renderAll}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class ReceiptBenchmark {
+
+    private static final int LINES = 8;
+    private static final String RULE = "--------------------------------------------------------";
+
+    @Param({"1000", "10000"})
+    int receipts;
+
+    private Path dir;
+    private List<List<Product>> items;
+    private List<SalesLedger.Bill> bills;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("bench");
+        List<Product> products = BenchData.products(receipts * LINES);
+        LocalDateTime time = BenchData.TODAY.atTime(9, 0);
+        items = new ArrayList<>(receipts);
+        bills = new ArrayList<>(receipts);
+        for (int r = 0; r < receipts; r++) {
+            List<Product> lines = products.subList(r * LINES, (r + 1) * LINES);
+            String[] names = new String[LINES];
+            int[] quantities = new int[LINES];
+            long[] prices = new long[LINES];
+            for (int i = 0; i < LINES; i++) {
+                names[i] = lines.get(i).getName();
+                quantities[i] = lines.get(i).getQuantity();
+                prices[i] = BillTotals.toPaise(lines.get(i).getPrice());
+            }
+            items.add(lines);
+            bills.add(new SalesLedger.Bill(time.plusSeconds(r * 30L), names, quantities, prices));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public int legacy() throws IOException {
+        for (int r = 0; r < receipts; r++) {
+            try (FileWriter writer = new FileWriter(dir.resolve("legacy-" + r + ".txt").toFile())) {
+                legacyReceipt(writer, items.get(r));
+            }
+        }
+        return receipts;
+    }
+
+    @Benchmark
+    public int renderer() throws IOException {
+        ReceiptRenderer renderer = new ReceiptRenderer();
+        for (int r = 0; r < receipts; r++) {
+            renderer.write(dir.resolve("single-" + r + ".txt"), bills.get(r));
+        }
+        return receipts;
+    }
+
+    @Benchmark
+    public int renderAll() throws IOException {
+        return ReceiptRenderer.renderAll(bills, dir.resolve("all"));
+    }
+
+    // Product.writeReceipt before ReceiptRenderer.
+    private static void legacyReceipt(Writer writer, List<Product> items) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+
+        writer.write("======= BILL RECEIPT =======\n");
+        writer.write("Date: " + now.format(formatter) + "\n\n");
+
+        long totalPaise = 0;
+        int serial = 1;
+
+        writer.write(String.format("%-5s %-15s %-10s %-10s %-10s%n", "S.No", "Product", "Quantity", "Price", "Total"));
+        writer.write(RULE + "\n");
+
+        for (Product p : items) {
+            long linePaise = BillTotals.lineTotalPaise(p);
+            writer.write(String.format("%-5d %-15s %-10d %-10.2f %-10.2f%n",
+                    serial++, p.getName(), p.getQuantity(), p.getPrice(), BigDecimal.valueOf(linePaise, 2)));
+            totalPaise += linePaise;
+        }
+
+        writer.write(RULE + "\n");
+        writer.write(String.format("Grand Total: ₹%.2f%n", BigDecimal.valueOf(totalPaise, 2)));
+        writer.write("============================\n");
+    }
+}
@@ -0,0 +1,135 @@
+package application;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search predicates as the tables apply them: build the predicate for a
+ * query, then test every row, as FilteredList does. Each "scan" method is the
+ * substring match the apps used before the indexes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class SearchBenchmark {
+
+    private static final String QUERY = "ent 4242";
+
+    @State(Scope.Benchmark)
+    public static class Loans {
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+        List<UserRecord> records;
+        SearchIndex<UserRecord> index;
+
+        @Setup
+        public void setup() {
+            records = BenchData.loans(rows);
+            index = new SearchIndex<>(UserRecord::getName, UserRecord::getUserId,
+                    UserRecord::getBookName, UserRecord::getBookId);
+            records.forEach(index::add);
+            // Indexing finishes in the background; wait for it here.
+            index.query(QUERY);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Students {
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+        List<Student> students;
+        SearchIndex<Student> index;
+
+        @Setup
+        public void setup() {
+            students = BenchData.students(rows);
+            index = new SearchIndex<>(Student::getName, Student::getDept, Student::getYear, Student::getCourse);
+            students.forEach(index::add);
+            index.query(QUERY);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Products {
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+        List<Product> products;
+        PrefixIndex<Product> index;
+
+        @Setup
+        public void setup() {
+            products = BenchData.products(rows);
+            index = new PrefixIndex<>(Product::getName);
+            products.forEach(index::add);
+        }
+    }
+
+    @Benchmark
+    public int loanIndex(Loans s) {
+        SearchIndex<UserRecord>.Hits hits = s.index.query(QUERY);
+        int n = 0;
+        for (UserRecord r : s.records) if (hits.test(r)) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int loanScan(Loans s) {
+        String q = QUERY.toLowerCase(Locale.ROOT);
+        int n = 0;
+        for (UserRecord r : s.records) {
+            if (r.getName().toLowerCase().contains(q) || r.getUserId().toLowerCase().contains(q)
+                    || r.getBookName().toLowerCase().contains(q) || r.getBookId().toLowerCase().contains(q)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int studentIndex(Students s) {
+        SearchIndex<Student>.Hits hits = s.index.query(QUERY);
+        int n = 0;
+        for (Student st : s.students) if (hits.test(st)) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int studentScan(Students s) {
+        String q = QUERY.toLowerCase(Locale.ROOT);
+        int n = 0;
+        for (Student st : s.students) {
+            if (st.getName().toLowerCase().contains(q) || st.getDept().toLowerCase().contains(q)
+                    || st.getYear().toLowerCase().contains(q) || st.getCourse().toLowerCase().contains(q)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int productIndex(Products s) {
+        Set<Product> hits = s.index.query("item 4242");
+        int n = 0;
+        for (Product p : s.products) if (hits.contains(p)) n++;
+        return n;
+    }
+
+    @Benchmark
+    public int productScan(Products s) {
+        int n = 0;
+        for (Product p : s.products) if (p.getName().toLowerCase().contains("item 4242")) n++;
+        return n;
+    }
+}
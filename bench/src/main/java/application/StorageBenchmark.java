@@ -0,0 +1,132 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full load and save of each data file in the format the apps keep on disk:
+ * students.txt, books.dat (plus the legacy books.txt import), loans.dat and
+ * bill.dat. Files live in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Djava.awt.headless=true"})
+public class StorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private Path dir;
+    private List<Student> students;
+    private List<Book> books;
+    private List<UserRecord> loans;
+    private List<Product> products;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("bench");
+        students = BenchData.students(rows);
+        books = BenchData.books(rows);
+        loans = BenchData.loans(rows);
+        products = BenchData.products(rows);
+        Student.FORMAT.write(dir.resolve("students.txt"), students);
+        Book.FORMAT.write(dir.resolve("books.dat"), books);
+        UserRecord.FORMAT.write(dir.resolve("loans.dat"), loans);
+        Product.FORMAT.write(dir.resolve("bill.dat"), products);
+        try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve("books.txt"))) {
+            for (Book b : books) {
+                writer.write("Title: " + b.getTitle() + ", Author: " + b.getAuthor() + ", Book ID: " + b.getBookId());
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public int loadStudents() throws IOException {
+        return load(Student.FORMAT, "students.txt");
+    }
+
+    @Benchmark
+    public void saveStudents() throws IOException {
+        Student.FORMAT.write(dir.resolve("students.out"), students);
+    }
+
+    @Benchmark
+    public int loadBooks() throws IOException {
+        return load(Book.FORMAT, "books.dat");
+    }
+
+    @Benchmark
+    public void saveBooks() throws IOException {
+        Book.FORMAT.write(dir.resolve("books.out"), books);
+    }
+
+    @Benchmark
+    public int loadLegacyBooks() throws IOException {
+        int n = 0;
+        try (BufferedReader reader = Files.newBufferedReader(dir.resolve("books.txt"))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (Book.parseLegacy(line) != null) n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int loadLoans() throws IOException {
+        return load(UserRecord.FORMAT, "loans.dat");
+    }
+
+    @Benchmark
+    public void saveLoans() throws IOException {
+        UserRecord.FORMAT.write(dir.resolve("loans.out"), loans);
+    }
+
+    @Benchmark
+    public int loadBill() throws IOException {
+        return load(Product.FORMAT, "bill.dat");
+    }
+
+    @Benchmark
+    public void saveBill() throws IOException {
+        Product.FORMAT.write(dir.resolve("bill.out"), products);
+    }
+
+    private <T> int load(ChangeJournal.Format<T> format, String file) throws IOException {
+        List<T> items = new ArrayList<>(rows);
+        format.read(dir.resolve(file), items::add);
+        if (items.size() != rows) throw new IllegalStateException(file + ": read " + items.size() + " of " + rows);
+        return items.size();
+    }
+}
@@ -0,0 +1,37 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Sort order of a students file browsed through an ArchiveStore. */
+class ArchiveStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tiesKeepFileOrderInBothDirections() throws IOException {
+        Path file = dir.resolve("archive.txt");
+        Files.writeString(file, String.join("\n",
+                "b0,CSE,2,B.Tech",
+                "a1,ECE,1,B.E",
+                "b2,\"CSE\",3,B.Tech",
+                "c3,ECE,2,B.E",
+                "a4,MECH,1,B.E",
+                "b5,CSE,4,MCA"), StandardCharsets.UTF_8);
+
+        try (ArchiveStore<Student> store = ArchiveStore.open(file, Student::parse, (done, total, n) -> { })) {
+            assertArrayEquals(new int[]{0, 2, 5, 1, 3, 4}, store.order(1, false));
+            assertArrayEquals(new int[]{4, 1, 3, 0, 2, 5}, store.order(1, true));
+            assertArrayEquals(new int[]{1, 4, 0, 3, 2, 5}, store.order(2, false));
+            assertArrayEquals(new int[]{5, 2, 0, 3, 1, 4}, store.order(2, true));
+        }
+    }
+}
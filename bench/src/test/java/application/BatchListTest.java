@@ -0,0 +1,87 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.Observable;
+import javafx.collections.ListChangeListener;
+
+import org.junit.jupiter.api.Test;
+
+/** Edits of listed elements are reported at the row the element is on now. */
+class BatchListTest {
+
+    private static List<Integer> recordUpdates(BatchList<Student> list) {
+        List<Integer> rows = new ArrayList<>();
+        list.addListener((ListChangeListener<Student>) c -> {
+            while (c.next()) {
+                if (!c.wasUpdated()) continue;
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    rows.add(i);
+                    // Reading the row, as a table does, lets its next edit invalidate it again.
+                    Student.fields(c.getList().get(i));
+                }
+            }
+        });
+        return rows;
+    }
+
+    private static Student student(String name) {
+        return new Student(name, "CSE", "1", "B.Tech");
+    }
+
+    @Test
+    void propertyEditsFollowInsertsAndRemoves() {
+        BatchList<Student> list = new BatchList<>(s -> new Observable[]{s.nameProperty(), s.deptProperty()});
+        Student a = student("a"), b = student("b"), c = student("c"), d = student("d");
+        list.addAll(List.of(a, b, c));
+        List<Integer> rows = recordUpdates(list);
+
+        c.setName("c2");
+        a.setDept("ECE");
+        list.add(0, d);
+        c.setName("c3");
+        list.remove(b);
+        c.setDept("IT");
+        list.removeItems(List.of(d));
+        c.setName("c4");
+        a.setName("a2");
+        list.set(0, b);
+        b.setName("b2");
+        a.setName("a3");
+        assertEquals(List.of(2, 0, 3, 2, 1, 0, 0), rows);
+    }
+
+    @Test
+    void updateReportsTheRowOfAnItemWithoutAnExtractor() {
+        BatchList<Student> list = new BatchList<>();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 10; i++) students.add(student("s" + i));
+        list.addAll(students);
+        List<Integer> rows = recordUpdates(list);
+
+        list.update(students.get(7));
+        list.remove(2, 4);
+        list.update(students.get(7));
+        list.update(students.get(1));
+        list.setAll(students.subList(5, 10));
+        list.update(students.get(7));
+        list.update(students.get(1));
+        assertEquals(List.of(7, 5, 1, 2), rows);
+    }
+
+    @Test
+    void aCopyLeftAfterItsTwinIsRemovedStillReportsEdits() {
+        BatchList<Student> list = new BatchList<>(s -> new Observable[]{s.nameProperty()});
+        Student a = student("a"), b = student("b"), c = student("c");
+        list.addAll(List.of(a, b, a, c));
+        List<Integer> rows = recordUpdates(list);
+
+        c.setName("c2");
+        list.remove(2);
+        a.setName("a2");
+        assertEquals(List.of(3, 0), rows);
+    }
+}
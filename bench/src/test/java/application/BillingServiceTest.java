@@ -0,0 +1,63 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** The open bill kept in bill.dat, and the bill.txt receipt printed from it. */
+class BillingServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compactedBillKeepsNamesAndPricesExactly() throws IOException {
+        Path file = dir.resolve("bill.dat");
+        BillingService bill = new BillingService(file);
+        bill.load();
+        bill.add(new Product("Apple  Juice", 3, 10.555));
+        bill.add(new Product("Pencil", 40, 0.125));
+        bill.save();
+        bill.close();
+
+        for (int round = 0; round < 2; round++) {
+            bill = new BillingService(file);
+            bill.load();
+            List<Product> lines = bill.products();
+            assertEquals(2, lines.size());
+            assertEquals("Apple  Juice", lines.get(0).getName());
+            assertEquals(10.555, lines.get(0).getPrice());
+            assertEquals(3, lines.get(0).getQuantity());
+            assertEquals("Pencil", lines.get(1).getName());
+            assertEquals(0.125, lines.get(1).getPrice());
+            // Compacting again must not change what is stored.
+            bill.update(lines.get(1), "Pencil", 40, 0.125);
+            bill.save();
+            bill.close();
+        }
+    }
+
+    @Test
+    void printedReceiptIsWrittenOnRequest() throws IOException {
+        BillingService bill = new BillingService(dir.resolve("bill.dat"));
+        bill.load();
+        bill.add(new Product("Apple  Juice", 2, 10.5));
+        bill.save();
+        Path receipt = dir.resolve("bill.txt");
+        bill.printReceipt(receipt, LocalDateTime.of(2025, 7, 1, 9, 30));
+        String text = Files.readString(receipt, StandardCharsets.UTF_8);
+        assertTrue(text.contains("Date: 01-07-2025 09:30:00"), text);
+        assertTrue(text.contains("Apple  Juice"), text);
+        assertTrue(text.contains("Grand Total: ₹21.00"), text);
+        bill.close();
+    }
+}
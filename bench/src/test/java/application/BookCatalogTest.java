@@ -0,0 +1,99 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+
+import org.junit.jupiter.api.Test;
+
+/** Copy and loan counts per book ID, kept in step with the books and loans lists. */
+class BookCatalogTest {
+
+    private static UserRecord loan(String userId, String bookId) {
+        return new UserRecord("name", userId, "book", bookId, null, null);
+    }
+
+    @Test
+    void availableFollowsCopiesAndLoans() {
+        BatchList<Book> books = new BatchList<>();
+        BatchList<UserRecord> loans = new BatchList<>();
+        Book dune = new Book("Dune", "Herbert", "B1");
+        books.addAll(List.of(dune, new Book("Dune", "Herbert", "b1")));
+        loans.add(loan("U1", "B1"));
+        BookCatalog catalog = BookCatalog.bind(books, loans);
+
+        assertEquals(2, catalog.copies("B1"));
+        assertEquals(1, catalog.onLoan(" b1 "));
+        assertEquals(1, catalog.available("B1"));
+        assertSame(dune, catalog.get("b1"));
+        ReadOnlyIntegerProperty available = catalog.availableProperty("B1");
+
+        UserRecord second = loan("U2", "b1");
+        loans.add(second);
+        assertEquals(0, catalog.available("B1"));
+        assertEquals(0, available.get());
+        assertFalse(catalog.isAvailable("B1"));
+
+        loans.remove(second);
+        assertEquals(1, available.get());
+        books.remove(dune);
+        assertEquals(0, available.get());
+        assertEquals(1, catalog.copies("B1"));
+    }
+
+    @Test
+    void moveLoanShiftsTheCountBetweenBooks() {
+        BatchList<Book> books = new BatchList<>();
+        BatchList<UserRecord> loans = new BatchList<>();
+        BookCatalog catalog = BookCatalog.bind(books, loans);
+        books.addAll(List.of(new Book("Dune", "Herbert", "B1"), new Book("Emma", "Austen", "B2")));
+        UserRecord r = loan("U1", "B1");
+        loans.add(r);
+
+        r.setBookId("B2");
+        catalog.moveLoan("B1", r);
+        assertEquals(1, catalog.available("B1"));
+        assertEquals(0, catalog.available("B2"));
+
+        // A change of case only is the same book.
+        r.setBookId("b2");
+        catalog.moveLoan("B2", r);
+        assertEquals(1, catalog.onLoan("B2"));
+
+        // Removal is counted against the book the loan names now.
+        loans.remove(r);
+        assertEquals(1, catalog.available("B1"));
+        assertEquals(1, catalog.available("B2"));
+    }
+
+    @Test
+    void loansRecordedBeforeTheirBookAreCountedWhenItArrives() {
+        BatchList<Book> books = new BatchList<>();
+        BatchList<UserRecord> loans = new BatchList<>();
+        BookCatalog catalog = BookCatalog.bind(books, loans);
+        UserRecord a = loan("U1", "B7"), b = loan("U2", "b7"), c = loan("U3", "B8");
+        loans.addAll(List.of(a, b, c));
+
+        assertNull(catalog.get("B7"));
+        assertFalse(catalog.contains("B7"));
+        assertEquals(2, catalog.onLoan("B7"));
+        assertEquals(-2, catalog.available("B7"));
+
+        books.addAll(List.of(new Book("Ulysses", "Joyce", "B7"), new Book("Ulysses", "Joyce", "B7"),
+                new Book("Ulysses", "Joyce", "B7")));
+        assertTrue(catalog.contains("B7"));
+        assertEquals(1, catalog.available("B7"));
+
+        // Entries go once nothing refers to them.
+        loans.removeItems(List.of(a, b, c));
+        assertEquals(3, catalog.available("B7"));
+        assertEquals(0, catalog.onLoan("B8"));
+        assertEquals(0, catalog.copies("B8"));
+    }
+}
@@ -0,0 +1,241 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Save, compact and reload of students.txt through its change journal. */
+class ChangeJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compactedSnapshotKeepsFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        List<Student> rows = students(1100);
+        rows.add(new Student("Smith, John", "CSE", "2", "B.Tech"));
+        rows.add(new Student("Dwayne \"Rock\"", "ECE", "", ""));
+        rows.add(new Student("two\r\nlines", "MECH", "1", "B.E"));
+        repo.importAll(rows);
+        repo.save();
+        // More than 1024 journaled rows, so that save folded them into students.txt.
+        assertFalse(Files.exists(file.resolveSibling("students.txt.journal.failed")));
+        assertEquals(1103, readSnapshot(file).size());
+
+        repo.remove(List.of(repo.students().get(repo.students().size() - 1)));
+        repo.save();
+
+        List<Student> reloaded = reload(file);
+        assertEquals(1102, reloaded.size());
+        assertEquals(fieldsOf(repo.students()), fieldsOf(reloaded));
+        assertEquals("Smith, John", reloaded.get(1100).getName());
+        assertEquals("Dwayne \"Rock\"", reloaded.get(1101).getName());
+        assertEquals("", reloaded.get(1101).getCourse());
+    }
+
+    @Test
+    void journalReplaysAddsRemovesAndEditsOverTheSnapshot() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.add(new Student("new", "IT", "4", "MCA"));
+        repo.remove(List.of(repo.students().get(0), repo.students().get(1)));
+        repo.update(repo.students().get(3), "edited, once", "CSE", "3", "B.Tech");
+        repo.save();
+
+        assertEquals(fieldsOf(repo.students()), fieldsOf(reload(file)));
+    }
+
+    @Test
+    void tornJournalTailIsCutOff() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.add(new Student("kept", "IT", "4", "MCA"));
+        repo.save();
+
+        Path journal = file.resolveSibling("students.txt.journal");
+        long committed = Files.size(journal);
+        Files.write(journal, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<Student> reloaded = reload(file);
+        assertEquals(11, reloaded.size());
+        assertEquals("kept", reloaded.get(10).getName());
+        assertEquals(committed, Files.size(journal));
+    }
+
+    @Test
+    void journalThatDoesNotFitTheSnapshotIsSetAside() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.remove(List.of(repo.students().get(9)));
+        repo.save();
+
+        // Same size and time, but the last row no longer parses: the journal
+        // header still matches, the row count does not.
+        FileTime time = Files.getLastModifiedTime(file);
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        int last = text.lastIndexOf("student9,");
+        Files.writeString(file, text.substring(0, last) + "student9;" + text.substring(last + 9),
+                StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, time);
+
+        StudentRepository broken = new StudentRepository(file);
+        IOException e = assertThrows(IOException.class, broken::load);
+        assertTrue(e.getMessage().contains("students.txt.journal.failed"), e.getMessage());
+        assertEquals(9, broken.students().size());
+        assertTrue(Files.exists(file.resolveSibling("students.txt.journal.failed")));
+
+        // Saving carries on from the snapshot that was shown.
+        broken.add(new Student("after", "IT", "1", "MCA"));
+        broken.save();
+        assertEquals(fieldsOf(broken.students()), fieldsOf(reload(file)));
+    }
+
+    @Test
+    void touchedOrCopiedSnapshotKeepsItsJournal() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.add(new Student("second", "IT", "4", "MCA"));
+        repo.save();
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        List<Student> reloaded = reload(file);
+        assertEquals(11, reloaded.size());
+        assertEquals("second", reloaded.get(10).getName());
+
+        Path copy = Files.createDirectory(dir.resolve("copy"));
+        Files.copy(file, copy.resolve("students.txt"));
+        Files.copy(file.resolveSibling("students.txt.journal"), copy.resolve("students.txt.journal"));
+        assertEquals(fieldsOf(reloaded), fieldsOf(reload(copy.resolve("students.txt"))));
+    }
+
+    @Test
+    void journalForAnotherSnapshotIsSetAsideAndReported() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.add(new Student("unsaved", "IT", "4", "MCA"));
+        repo.save();
+
+        // An older students.txt restored over the one the journal was written for.
+        Student.FORMAT.write(file, students(12));
+        StudentRepository restored = new StudentRepository(file);
+        IOException e = assertThrows(IOException.class, restored::load);
+        assertTrue(e.getMessage().contains("another copy"), e.getMessage());
+        assertEquals(12, restored.students().size());
+        assertTrue(Files.exists(file.resolveSibling("students.txt.journal.failed")));
+        assertFalse(Files.exists(file.resolveSibling("students.txt.journal")));
+    }
+
+    @Test
+    void journalFoldedIntoTheSnapshotIsDroppedWhenCompactionStopsHalfway() throws IOException {
+        Path file = dir.resolve("students.txt");
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        repo.importAll(students(10));
+        repo.save();
+        repo.close();
+        repo = new StudentRepository(file);
+        repo.load();
+        repo.add(new Student("folded", "IT", "4", "MCA"));
+        repo.save();
+
+        // Compaction writes students.txt.tmp and marks the journal, then
+        // cannot rename over a directory; finish the rename by hand, as if
+        // the process stopped right after it.
+        Files.delete(file);
+        Files.createDirectory(file);
+        Files.createFile(file.resolve("blocker"));
+        assertThrows(IOException.class, repo::close);
+        Files.delete(file.resolve("blocker"));
+        Files.delete(file);
+        Files.move(file.resolveSibling("students.txt.tmp"), file);
+
+        List<Student> reloaded = reload(file);
+        assertEquals(11, reloaded.size());
+        assertEquals("folded", reloaded.get(10).getName());
+        assertFalse(Files.exists(file.resolveSibling("students.txt.journal.failed")));
+    }
+
+    @Test
+    void unreadableSnapshotRefusesToSave() throws IOException {
+        Path file = dir.resolve("students.txt");
+        Files.createDirectory(file);
+        StudentRepository repo = new StudentRepository(file);
+        assertThrows(IOException.class, repo::load);
+        repo.add(new Student("lost", "IT", "1", "MCA"));
+        IOException e = assertThrows(IOException.class, repo::save);
+        assertTrue(e.getMessage().contains("not loaded"), e.getMessage());
+        repo.close();
+        assertTrue(Files.isDirectory(file));
+    }
+
+    private static List<Student> students(int n) {
+        List<Student> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(new Student("student" + i, "CSE", String.valueOf(1 + i % 4), "B.Tech"));
+        return out;
+    }
+
+    private static List<Student> reload(Path file) throws IOException {
+        StudentRepository repo = new StudentRepository(file);
+        repo.load();
+        return new ArrayList<>(repo.students());
+    }
+
+    private static List<Student> readSnapshot(Path file) throws IOException {
+        List<Student> rows = new ArrayList<>();
+        Student.FORMAT.read(file, rows::add);
+        return rows;
+    }
+
+    private static List<List<String>> fieldsOf(List<Student> students) {
+        List<List<String>> out = new ArrayList<>();
+        for (Student s : students) out.add(List.of(Student.fields(s)));
+        return out;
+    }
+}
@@ -0,0 +1,119 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** CSV export and import: quoting, row boundaries and rejected rows. */
+class CsvBatchTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void quotedFieldsRoundTrip() throws IOException {
+        List<String[]> rows = List.of(
+                new String[]{"Smith, John", "CSE", "2", "B.Tech"},
+                new String[]{"Dwayne \"Rock\"", "", "3", ""},
+                new String[]{"two\r\nlines", "ECE\nnext", "1", "\"quoted\""},
+                new String[]{"plain", "ü ₹", "4", "MBA"});
+        Path file = dir.resolve("out.csv");
+        CsvBatch.write(file, rows, r -> r);
+
+        CsvBatch.Result<String[]> result = CsvBatch.read(file, f -> f);
+        assertEquals(0, result.rejected.size());
+        assertEquals(rows.size(), result.rows.size());
+        for (int i = 0; i < rows.size(); i++) assertArrayEquals(rows.get(i), result.rows.get(i));
+
+        // The student snapshot reader agrees with the bulk parser.
+        List<Student> students = new ArrayList<>();
+        Student.FORMAT.read(file, students::add);
+        assertEquals(rows.size(), students.size());
+        for (int i = 0; i < rows.size(); i++) assertArrayEquals(rows.get(i), Student.fields(students.get(i)));
+    }
+
+    @Test
+    void rowBoundsSkipBomBlankLinesAndCarriageReturns() throws IOException {
+        Path file = dir.resolve("in.csv");
+        Files.write(file, ("﻿a,b\r\n\r\n\"c\nd\",e\nf,\"g,h\"").getBytes(StandardCharsets.UTF_8));
+
+        CsvBatch.Result<String[]> result = CsvBatch.read(file, f -> f);
+        assertEquals(3, result.rows.size());
+        assertArrayEquals(new String[]{"a", "b"}, result.rows.get(0));
+        assertArrayEquals(new String[]{"c\nd", "e"}, result.rows.get(1));
+        assertArrayEquals(new String[]{"f", "g,h"}, result.rows.get(2));
+    }
+
+    @Test
+    void quoteInsideAFieldIsPlainText() throws IOException {
+        Path file = dir.resolve("books.csv");
+        Files.writeString(file, "12\" Ruler,Acme,B1\nDune,Herbert,B2\n\"Emma, Vol. 1\",Austen,B3\n",
+                StandardCharsets.UTF_8);
+
+        CsvBatch.Result<Book> result = CsvBatch.read(file, LoanService::bookFromCsv);
+        assertEquals(0, result.rejected.size());
+        assertEquals(3, result.rows.size());
+        assertEquals("12\" Ruler", result.rows.get(0).getTitle());
+        assertEquals("B2", result.rows.get(1).getBookId());
+        assertEquals("Emma, Vol. 1", result.rows.get(2).getTitle());
+    }
+
+    @Test
+    void rejectedRowsKeepTheirRowNumberAndText() throws IOException {
+        Path file = dir.resolve("students.csv");
+        Files.writeString(file, "ann,CSE,1,B.Tech\nbad,row\n\"cy, jr\",ECE,2,B.E\n,IT,3,MCA\n",
+                StandardCharsets.UTF_8);
+
+        CsvBatch.Result<Student> result = CsvBatch.read(file, StudentRepository::fromCsv);
+        assertEquals(2, result.rows.size());
+        assertEquals("cy, jr", result.rows.get(1).getName());
+        assertEquals(2, result.rejected.size());
+        assertEquals(2, result.rejected.get(0).row);
+        assertEquals("bad,row", result.rejected.get(0).text);
+        assertEquals(4, result.rejected.get(1).row);
+        assertEquals(",IT,3,MCA", result.rejected.get(1).text);
+    }
+
+    @Test
+    void rowsRejectedAfterParsingReportTheirFileRow() throws IOException {
+        Path file = dir.resolve("loans.csv");
+        Files.writeString(file, "a,U1\nbroken\n\"b, jr\",U2\nc,U1\n", StandardCharsets.UTF_8);
+
+        CsvBatch.Result<String[]> result = CsvBatch.read(file, f -> {
+            if (f.length != 2) throw new IllegalArgumentException("expected 2 fields");
+            return f;
+        });
+        assertEquals(3, result.rows.size());
+        result.reject(2, "duplicate user ID");
+        result.reject(1, "unknown book");
+        result.sortRejected();
+
+        assertEquals(3, result.rejected.size());
+        assertEquals(2, result.rejected.get(0).row);
+        assertEquals(3, result.rejected.get(1).row);
+        assertEquals("\"b, jr\",U2", result.rejected.get(1).text);
+        assertEquals(4, result.rejected.get(2).row);
+        assertEquals("c,U1", result.rejected.get(2).text);
+    }
+
+    @Test
+    void largeFilesKeepFileOrderAcrossChunks() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) rows.add(new String[]{"n" + i, i % 7 == 0 ? "x,y" : "z", String.valueOf(i)});
+        Path file = dir.resolve("big.csv");
+        CsvBatch.write(file, rows, r -> r);
+
+        CsvBatch.Result<String[]> result = CsvBatch.read(file, f -> f);
+        assertEquals(rows.size(), result.rows.size());
+        for (int i = 0; i < rows.size(); i++) assertArrayEquals(rows.get(i), result.rows.get(i));
+    }
+}
@@ -0,0 +1,62 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Day-bucketed range queries, kept in step with a bound list and with redates. */
+class DateIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private static UserRecord loan(String userId, LocalDate expiry) {
+        return new UserRecord("name", userId, "book", "B1", null, expiry);
+    }
+
+    @Test
+    void rangesAreOldestFirstAndSkipUndatedItems() {
+        BatchList<UserRecord> list = new BatchList<>();
+        UserRecord a = loan("U1", DAY), b = loan("U2", DAY.minusDays(2)), c = loan("U3", null),
+                d = loan("U4", DAY.plusDays(1)), e = loan("U5", DAY);
+        list.addAll(List.of(a, b, c));
+        DateIndex<UserRecord> index = DateIndex.bind(list, UserRecord::getExpiry);
+        list.addAll(List.of(d, e));
+
+        assertEquals(List.of(b), index.before(DAY));
+        assertEquals(List.of(b, a, e), index.before(DAY.plusDays(1)));
+        assertEquals(List.of(a, e, d), index.between(DAY, DAY.plusDays(1)));
+        assertEquals(List.of(), index.between(DAY.minusDays(1), DAY.minusDays(1)));
+
+        list.remove(a);
+        list.remove(c);
+        assertEquals(List.of(b, e, d), index.between(DAY.minusDays(5), DAY.plusDays(5)));
+    }
+
+    @Test
+    void redateMovesAnItemFromTheDayItHadBefore() {
+        BatchList<UserRecord> list = new BatchList<>();
+        DateIndex<UserRecord> index = DateIndex.bind(list, UserRecord::getExpiry);
+        UserRecord a = loan("U1", DAY), b = loan("U2", DAY), c = loan("U3", null);
+        list.addAll(List.of(a, b, c));
+
+        a.setExpiry(DAY.minusDays(3));
+        index.redate(DAY, a);
+        assertEquals(List.of(a), index.before(DAY));
+        assertEquals(List.of(b), index.between(DAY, DAY));
+
+        // Into and out of having no date at all.
+        c.setExpiry(DAY.plusDays(2));
+        index.redate(null, c);
+        b.setExpiry(null);
+        index.redate(DAY, b);
+        assertEquals(List.of(a, c), index.between(DAY.minusDays(5), DAY.plusDays(5)));
+
+        // Removal finds the item under its current date.
+        list.remove(a);
+        list.remove(b);
+        assertEquals(List.of(c), index.between(DAY.minusDays(5), DAY.plusDays(5)));
+    }
+}
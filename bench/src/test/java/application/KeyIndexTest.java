@@ -0,0 +1,93 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Case-insensitive key lookups, kept in step with a bound list and with rekeys. */
+class KeyIndexTest {
+
+    private static UserRecord loan(String userId) {
+        return new UserRecord("name", userId, "book", "B1", null, null);
+    }
+
+    @Test
+    void keysMatchIgnoringCaseAndSurroundingSpace() {
+        KeyIndex<UserRecord> index = new KeyIndex<>(UserRecord::getUserId);
+        UserRecord a = loan("U1");
+        index.put(a);
+
+        assertSame(a, index.get(" u1 "));
+        assertTrue(index.contains("U1"));
+        assertFalse(index.contains("U2"));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    void theFirstItemWithAKeyKeepsIt() {
+        BatchList<UserRecord> list = new BatchList<>();
+        KeyIndex<UserRecord> index = KeyIndex.bind(list, UserRecord::getUserId);
+        UserRecord first = loan("U1"), second = loan("u1");
+        list.addAll(List.of(first, second));
+
+        assertSame(first, index.get("U1"));
+        assertEquals(1, index.size());
+        // Removing the item that does not hold the key leaves the key alone.
+        list.remove(second);
+        assertSame(first, index.get("U1"));
+    }
+
+    @Test
+    void aBoundIndexIsBuiltFromTheListOnFirstLookup() {
+        BatchList<UserRecord> list = new BatchList<>();
+        UserRecord a = loan("U1"), b = loan("U2"), c = loan("U3");
+        list.add(a);
+        KeyIndex<UserRecord> index = KeyIndex.bind(list, UserRecord::getUserId);
+        list.addAll(List.of(b, c));
+        list.remove(a);
+        // Edits reported before the first lookup need no rekey.
+        c.setUserId("U9");
+        index.rekey("U3", c);
+
+        assertEquals(2, index.size());
+        assertFalse(index.contains("U1"));
+        assertSame(b, index.get("U2"));
+        assertSame(c, index.get("U9"));
+        assertFalse(index.contains("U3"));
+
+        list.add(a);
+        list.remove(b);
+        assertSame(a, index.get("U1"));
+        assertFalse(index.contains("U2"));
+    }
+
+    @Test
+    void rekeyMovesAnItemToItsNewKey() {
+        BatchList<UserRecord> list = new BatchList<>();
+        KeyIndex<UserRecord> index = KeyIndex.bind(list, UserRecord::getUserId);
+        UserRecord a = loan("U1"), b = loan("U2");
+        list.addAll(List.of(a, b));
+        assertSame(a, index.get("U1"));
+
+        a.setUserId("U3");
+        index.rekey("U1", a);
+        assertFalse(index.contains("U1"));
+        assertSame(a, index.get("u3"));
+
+        // A stale old key naming another item does not unmap that item.
+        index.rekey("U2", a);
+        assertSame(b, index.get("U2"));
+        assertSame(a, index.get("U3"));
+
+        // Removal from the list finds the item under its current key.
+        list.remove(a);
+        assertFalse(index.contains("U3"));
+        assertEquals(1, index.size());
+    }
+}
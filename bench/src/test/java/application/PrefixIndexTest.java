@@ -0,0 +1,54 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/** Name and word prefix lookups, kept in step with a bound list and with renames. */
+class PrefixIndexTest {
+
+    @Test
+    void prefixesMatchTheWholeNameOrAnyWord() {
+        BatchList<Product> list = new BatchList<>();
+        Product juice = new Product("Apple Juice", 1, 50), apple = new Product("apple", 2, 20),
+                pie = new Product("Pie", 1, 80);
+        list.add(juice);
+        PrefixIndex<Product> index = PrefixIndex.bind(list, Product::getName);
+        list.addAll(List.of(apple, pie));
+
+        assertEquals(Set.of(juice, apple), index.query(" APP"));
+        assertEquals(Set.of(juice), index.query("ju"));
+        assertEquals(Set.of(juice), index.query("apple j"));
+        assertEquals(Set.of(), index.query("uice"));
+        assertNull(index.query("  "));
+
+        list.remove(juice);
+        assertEquals(Set.of(apple), index.query("app"));
+        assertEquals(Set.of(), index.query("ju"));
+    }
+
+    @Test
+    void updateRefilesARenamedItem() {
+        BatchList<Product> list = new BatchList<>();
+        PrefixIndex<Product> index = PrefixIndex.bind(list, Product::getName);
+        Product p = new Product("Green Tea", 1, 30), q = new Product("Tea Cake", 1, 40);
+        list.addAll(List.of(p, q));
+
+        p.setName("Black Coffee");
+        index.update(p);
+        assertEquals(Set.of(q), index.query("tea"));
+        assertEquals(Set.of(), index.query("green"));
+        assertEquals(Set.of(p), index.query("co"));
+
+        // Removal uses the tokens the item was filed under.
+        p.setName("Espresso");
+        list.remove(p);
+        assertEquals(Set.of(), index.query("black"));
+        assertEquals(Set.of(), index.query("esp"));
+        assertEquals(Set.of(q), index.query("cake"));
+    }
+}
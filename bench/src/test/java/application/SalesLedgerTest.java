@@ -0,0 +1,109 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Recording, reopening and torn-tail recovery of sales.ledger. */
+class SalesLedgerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 7, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornTailIsCutOffWhenOpened() throws IOException {
+        Path file = dir.resolve("sales.ledger");
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            for (int b = 0; b < 3; b++) ledger.record(DAY.atTime(9, b), bill(b, 4));
+        }
+        long committed = Files.size(file);
+        // A frame header promising more than was written, as a crash mid-append leaves.
+        Files.write(file, new byte[]{0, 0, 1, 0, 1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            assertEquals(3, ledger.bills());
+            assertEquals(committed, Files.size(file));
+            ledger.record(DAY.atTime(10, 0), bill(3, 2));
+        }
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            assertEquals(4, ledger.bills());
+            SalesLedger.Sales total = ledger.total(DAY, DAY);
+            assertEquals(4, total.bills);
+            assertEquals(expected(List.of(bill(0, 4), bill(1, 4), bill(2, 4), bill(3, 2))), total.revenue);
+            assertEquals(14, ledger.bills(DAY, DAY).stream().mapToInt(SalesLedger.Bill::lines).sum());
+        }
+    }
+
+    @Test
+    void blankedTailIsCutOffWhenOpened() throws IOException {
+        Path file = dir.resolve("sales.ledger");
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            ledger.record(DAY.atTime(9, 0), bill(0, 3));
+        }
+        long committed = Files.size(file);
+        Files.write(file, new byte[200], StandardOpenOption.APPEND);
+
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            assertEquals(1, ledger.bills());
+            assertEquals(committed, Files.size(file));
+        }
+    }
+
+    @Test
+    void ledgerLargerThanOneReadReopensIntact() throws IOException {
+        Path file = dir.resolve("sales.ledger");
+        List<List<Product>> bills = new ArrayList<>();
+        List<SalesLedger.ProductSales> top;
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            for (int b = 0; b < 1500; b++) {
+                bills.add(bill(b, 50));
+                ledger.record(DAY.plusDays(b % 7).atTime(9, 0), bills.get(b));
+            }
+            top = ledger.topProducts(DAY, DAY.plusDays(6), 5);
+        }
+        assertTrue(Files.size(file) > 1 << 20);
+
+        try (SalesLedger ledger = SalesLedger.open(file)) {
+            assertEquals(1500, ledger.bills());
+            assertEquals(expected(bills), ledger.total(DAY, DAY.plusDays(6)).revenue);
+            List<SalesLedger.ProductSales> reopened = ledger.topProducts(DAY, DAY.plusDays(6), 5);
+            assertEquals(top.size(), reopened.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(top.get(i).name, reopened.get(i).name);
+                assertEquals(top.get(i).quantity, reopened.get(i).quantity);
+                assertEquals(top.get(i).revenue, reopened.get(i).revenue);
+            }
+        }
+    }
+
+    private static List<Product> bill(int b, int lines) {
+        List<Product> out = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            int p = (b * 7 + i) % 300;
+            out.add(new Product("Product " + p, 1 + (b + i) % 5, 10 + p % 90 + 0.25));
+        }
+        return out;
+    }
+
+    private static BigDecimal expected(List<List<Product>> bills) {
+        long paise = 0;
+        for (List<Product> bill : bills) {
+            for (Product p : bill) paise += BillTotals.lineTotalPaise(p);
+        }
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -0,0 +1,76 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Trigram search over students, kept in step with a bound list. */
+class SearchIndexTest {
+
+    @Test
+    void queriesFollowAddsEditsAndRemoves() {
+        BatchList<Student> list = new BatchList<>();
+        SearchIndex<Student> index = SearchIndex.bind(list, Student::getName, Student::getDept);
+        Student ada = new Student("Ada Lovelace", "CSE", "2", "B.Tech");
+        Student alan = new Student("Alan Turing", "ECE", "3", "B.E");
+        list.addAll(List.of(ada, alan));
+
+        assertNull(index.query("  "));
+        SearchIndex<Student>.Hits hits = index.query("LOVE");
+        assertEquals(1, hits.size());
+        assertTrue(hits.test(ada));
+        assertFalse(hits.test(alan));
+        // Short queries scan, and fields do not run into each other.
+        assertEquals(2, index.query("a").size());
+        assertEquals(0, index.query("lacecse").size());
+        assertEquals(1, index.query("ece").size());
+
+        ada.setName("Ada King");
+        index.update(ada);
+        assertEquals(0, index.query("love").size());
+        assertTrue(index.query("king").test(ada));
+
+        list.remove(alan);
+        assertEquals(0, index.query("turing").size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removedIdsAreRecycled() {
+        BatchList<Student> list = new BatchList<>();
+        SearchIndex<Student> index = SearchIndex.bind(list, Student::getName);
+        for (int round = 0; round < 20; round++) {
+            List<Student> rows = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) rows.add(new Student("round" + round + " student" + i, "CSE", "1", "B.E"));
+            list.addAll(rows);
+            assertEquals(2000, index.query("round" + round + " ").size());
+            list.clear();
+        }
+        assertTrue(index.slots() < 5000, "ids handed out: " + index.slots());
+        assertEquals(0, index.query("student").size());
+    }
+
+    @Test
+    void itemGivenARecycledIdIsNotAnEarlierHit() {
+        BatchList<Student> list = new BatchList<>();
+        SearchIndex<Student> index = SearchIndex.bind(list, Student::getName);
+        List<Student> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) rows.add(new Student("old" + i, "CSE", "1", "B.E"));
+        list.addAll(rows);
+        SearchIndex<Student>.Hits hits = index.query("old");
+        assertEquals(3000, hits.size());
+
+        list.clear();
+        Student late = new Student("new", "CSE", "1", "B.E");
+        list.add(late);
+        assertTrue(index.slots() <= 3000);
+        assertFalse(hits.test(late));
+        assertTrue(index.query("new").test(late));
+    }
+}
@@ -1,20 +1,26 @@
 package application;
 
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import javafx.application.Application;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 
 public class Main extends Application {
@@ -22,7 +28,8 @@ public class Main extends Application {
     TableView<Product> table;
     TextField nameInput, quantityInput, priceInput, searchField;
     Label totalLabel;
-    ObservableList<Product> products;
+    FilteredList<Product> filteredProducts;
+    BillingService bill = new BillingService(Paths.get("bill.dat"));
 
     @Override
     public void start(Stage primaryStage) {
@@ -89,6 +96,7 @@ public class Main extends Application {
         Button searchButton = new Button("Search");
         searchButton.setStyle("-fx-background-color: lightgreen; -fx-text-fill: black;");
         searchButton.setOnAction(e -> filterProducts(searchField.getText()));
+        searchField.textProperty().addListener((obs, old, text) -> filterProducts(text));
 
         HBox searchLayout = new HBox(10, searchField, searchButton);
         searchLayout.setAlignment(Pos.CENTER_LEFT);
@@ -103,34 +111,43 @@ public class Main extends Application {
         dateBox.setAlignment(Pos.CENTER_RIGHT);
         dateBox.setPadding(new Insets(5, 10, 5, 10));
 
-        TableColumn<Product, String> snCol = new TableColumn<>("S.No");
+        TableColumn<Product, Void> snCol = new TableColumn<>("S.No");
         snCol.setMinWidth(50);
-        snCol.setCellValueFactory(cellData -> {
-            int index = table.getItems().indexOf(cellData.getValue()) + 1;
-            return new SimpleStringProperty(String.valueOf(index));
+        snCol.setSortable(false);
+        snCol.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : String.valueOf(getIndex() + 1));
+            }
         });
 
-        TableColumn<Product, String> nameCol = new TableColumn<>("Name");
+        TableColumn<Product, String> nameCol = Columns.of("Name", Product::nameProperty);
         nameCol.setMinWidth(100);
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
 
-        TableColumn<Product, Integer> quantityCol = new TableColumn<>("Quantity");
+        TableColumn<Product, Number> quantityCol = Columns.of("Quantity", Product::quantityProperty);
         quantityCol.setMinWidth(100);
-        quantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
 
-        TableColumn<Product, Double> priceCol = new TableColumn<>("Price");
+        TableColumn<Product, Number> priceCol = Columns.of("Price", Product::priceProperty);
         priceCol.setMinWidth(100);
-        priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
 
-        TableColumn<Product, Double> totalCol = new TableColumn<>("Total");
+        TableColumn<Product, Number> totalCol = Columns.of("Total", Product::totalProperty);
         totalCol.setMinWidth(100);
-        totalCol.setCellValueFactory(new PropertyValueFactory<>("total"));
 
         table = new TableView<>();
         table.setStyle("-fx-background-color: lightblue; -fx-table-cell-border-color: blue; -fx-control-inner-background:lightblue;");
-        products = FXCollections.observableArrayList();
-        table.setItems(products);
+        try {
+            bill.load();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            showAlert("Could not load the bill: " + e.getMessage());
+        }
+        filteredProducts = new FilteredList<>(bill.products(), p -> true);
+        SortedList<Product> sortedProducts = new SortedList<>(filteredProducts);
+        sortedProducts.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedProducts);
         table.getColumns().addAll(snCol, nameCol, quantityCol, priceCol, totalCol);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
         table.getSelectionModel().selectedItemProperty().addListener((obs, oldSel, newSel) -> {
             if (newSel != null) {
@@ -159,13 +176,23 @@ public class Main extends Application {
                 addButton, updateButton, deleteButton, saveButton, exitButton);
         inputLayout.setAlignment(Pos.CENTER);
 
-        HBox totalLayout = new HBox(10, totalLabel);
+        Button checkoutButton = new Button("Checkout");
+        checkoutButton.setOnAction(e -> checkout());
+        Button reportButton = new Button("Sales Report");
+        reportButton.setOnAction(e -> showSalesReport(primaryStage));
+        for (Button btn : new Button[]{checkoutButton, reportButton}) {
+            btn.setStyle("-fx-background-color: green; -fx-text-fill: white;");
+        }
+
+        HBox totalLayout = new HBox(10, checkoutButton, reportButton, totalLabel);
         totalLayout.setAlignment(Pos.CENTER_RIGHT);
 
         VBox mainLayout = new VBox(10, searchLayout, dateBox, table, inputLayout, totalLayout);
         mainLayout.setPadding(new Insets(15));
         mainLayout.setStyle("-fx-background-color: #f0f8ff;");
 
+        updateTotalBill();
+
         Scene scene = new Scene(mainLayout, 980, 470);
         primaryStage.setTitle("Product Billing System - 'Tata Groups Of Companies'");
         primaryStage.setScene(scene);
@@ -175,22 +202,26 @@ public class Main extends Application {
     private void addProduct() {
         try {
             String name = nameInput.getText().trim();
-            int quantity = Integer.parseInt(quantityInput.getText().trim());
-            double price = Double.parseDouble(priceInput.getText().trim());
+            String qtyText = quantityInput.getText().trim();
+            int quantity = qtyText.isEmpty() ? 1 : Integer.parseInt(qtyText);
 
             if (name.isEmpty()) {
                 showAlert("Product name cannot be empty.");
                 return;
             }
 
-            for (Product p : products) {
-                if (p.getName().equalsIgnoreCase(name)) {
-                    showAlert("Product with the same name already exists.");
-                    return;
-                }
+            // Entering a name already on the bill adds to that line, so repeated scans just bump the quantity.
+            Product existing = bill.find(name);
+            if (existing != null) {
+                bill.addQuantity(existing, quantity);
+                updateTotalBill();
+                clearFields();
+                return;
             }
 
-            products.add(new Product(name, quantity, price));
+            double price = Double.parseDouble(priceInput.getText().trim());
+            bill.add(new Product(name, quantity, price));
+            filterProducts(searchField.getText());
             updateTotalBill();
             clearFields();
         } catch (NumberFormatException e) {
@@ -211,17 +242,11 @@ public class Main extends Application {
                     return;
                 }
 
-                for (Product p : products) {
-                    if (p != selected && p.getName().equalsIgnoreCase(newName)) {
-                        showAlert("Another product with the same name already exists.");
-                        return;
-                    }
+                if (!bill.update(selected, newName, newQty, newPrice)) {
+                    showAlert("Another product with the same name already exists.");
+                    return;
                 }
-
-                selected.setName(newName);
-                selected.setQuantity(newQty);
-                selected.setPrice(newPrice);
-                table.refresh();
+                filterProducts(searchField.getText());
                 updateTotalBill();
                 clearFields();
             } catch (NumberFormatException e) {
@@ -233,9 +258,9 @@ public class Main extends Application {
     }
 
     private void deleteProduct() {
-        Product selected = table.getSelectionModel().getSelectedItem();
-        if (selected != null) {
-            products.remove(selected);
+        List<Product> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
+        if (!selected.isEmpty()) {
+            bill.remove(selected, filteredProducts);
             updateTotalBill();
             clearFields();
         } else {
@@ -244,26 +269,14 @@ public class Main extends Application {
     }
 
     private void updateTotalBill() {
-        double total = 0;
-        for (Product p : products) {
-            total += p.getTotal();
-        }
-        totalLabel.setText(String.format("Total Bill: ₹%.2f", total));
+        BillTotals totals = bill.totals();
+        totalLabel.setText("Items: " + totals.getLineCount() + "   Quantity: " + totals.getQuantity()
+                + "   Total Bill: ₹" + totals.getTotal());
     }
 
     private void filterProducts(String keyword) {
-        if (keyword == null || keyword.isEmpty()) {
-            table.setItems(products);
-            return;
-        }
-
-        ObservableList<Product> filtered = FXCollections.observableArrayList();
-        for (Product p : products) {
-            if (p.getName().toLowerCase().contains(keyword.toLowerCase())) {
-                filtered.add(p);
-            }
-        }
-        table.setItems(filtered);
+        Set<Product> hits = bill.search(keyword);
+        filteredProducts.setPredicate(hits == null ? p -> true : hits::contains);
     }
 
     private void clearFields() {
@@ -273,37 +286,116 @@ public class Main extends Application {
         table.getSelectionModel().clearSelection();
     }
 
-    private void saveBillToFile() {
-        try (FileWriter writer = new FileWriter("bill.txt")) {
-            LocalDateTime now = LocalDateTime.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
-
-            writer.write("======= BILL RECEIPT =======\n");
-            writer.write("Date: " + now.format(formatter) + "\n\n");
-
-            double total = 0;
-            int serial = 1;
-
-            writer.write(String.format("%-5s %-15s %-10s %-10s %-10s%n", "S.No", "Product", "Quantity", "Price", "Total"));
-            writer.write("--------------------------------------------------------\n");
-
-            for (Product p : products) {
-                double lineTotal = p.getTotal();
-                writer.write(String.format("%-5d %-15s %-10d %-10.2f %-10.2f%n",
-                        serial++, p.getName(), p.getQuantity(), p.getPrice(), lineTotal));
-                total += lineTotal;
-            }
-
-            writer.write("--------------------------------------------------------\n");
-            writer.write(String.format("Grand Total: ₹%.2f%n", total));
-            writer.write("============================\n");
+    @Override
+    public void stop() throws IOException {
+        bill.close();
+    }
 
+    private void saveBillToFile() {
+        try {
+            bill.save();
+            bill.printReceipt(Paths.get("bill.txt"), LocalDateTime.now());
             showAlert("Bill saved to 'bill.txt'");
         } catch (IOException e) {
             showAlert("Error saving the file.");
         }
     }
 
+    // Records the bill in sales.ledger and clears it for the next customer.
+    private void checkout() {
+        try {
+            BigDecimal total = bill.checkout(LocalDateTime.now());
+            if (total == null) {
+                showAlert("The bill is empty.");
+                return;
+            }
+            updateTotalBill();
+            clearFields();
+            showAlert("Sale of ₹" + total + " recorded.");
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert("Could not record the sale: " + e.getMessage());
+        }
+    }
+
+    private void showSalesReport(Stage owner) {
+        DatePicker fromPicker = new DatePicker(LocalDate.now().withDayOfMonth(1));
+        DatePicker toPicker = new DatePicker(LocalDate.now());
+        Label summary = new Label();
+        summary.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+
+        TableView<SalesLedger.Sales> dayTable = new TableView<>();
+        TableColumn<SalesLedger.Sales, LocalDate> dayCol = Columns.ofValue("Date", d -> d.day);
+        TableColumn<SalesLedger.Sales, Integer> billsCol = Columns.ofValue("Bills", d -> d.bills);
+        TableColumn<SalesLedger.Sales, Long> dayQtyCol = Columns.ofValue("Quantity", d -> d.quantity);
+        TableColumn<SalesLedger.Sales, BigDecimal> dayRevenueCol = Columns.ofValue("Revenue", d -> d.revenue);
+        dayTable.getColumns().setAll(List.of(dayCol, billsCol, dayQtyCol, dayRevenueCol));
+
+        TableView<SalesLedger.ProductSales> topTable = new TableView<>();
+        TableColumn<SalesLedger.ProductSales, String> topNameCol = Columns.ofValue("Top Products", p -> p.name);
+        TableColumn<SalesLedger.ProductSales, Long> topQtyCol = Columns.ofValue("Quantity", p -> p.quantity);
+        TableColumn<SalesLedger.ProductSales, BigDecimal> topRevenueCol = Columns.ofValue("Revenue", p -> p.revenue);
+        topTable.getColumns().setAll(List.of(topNameCol, topQtyCol, topRevenueCol));
+
+        Runnable refresh = () -> {
+            LocalDate from = fromPicker.getValue(), to = toPicker.getValue();
+            if (from == null || to == null) return;
+            try {
+                SalesLedger ledger = bill.ledger();
+                SalesLedger.Sales total = ledger.total(from, to);
+                summary.setText("Bills: " + total.bills + "   Quantity: " + total.quantity
+                        + "   Revenue: ₹" + total.revenue);
+                dayTable.getItems().setAll(ledger.daily(from, to));
+                topTable.getItems().setAll(ledger.topProducts(from, to, 10));
+            } catch (IOException e) {
+                e.printStackTrace();
+                showAlert("Could not read the sales ledger: " + e.getMessage());
+            }
+        };
+        fromPicker.valueProperty().addListener((obs, old, d) -> refresh.run());
+        toPicker.valueProperty().addListener((obs, old, d) -> refresh.run());
+        refresh.run();
+
+        Button reprintButton = new Button("Reprint Receipts");
+        reprintButton.setOnAction(e -> reprintReceipts(reprintButton, fromPicker.getValue(), toPicker.getValue()));
+
+        HBox range = new HBox(10, new Label("From:"), fromPicker, new Label("To:"), toPicker, reprintButton);
+        range.setAlignment(Pos.CENTER_LEFT);
+        HBox tables = new HBox(10, dayTable, topTable);
+        VBox layout = new VBox(10, range, summary, tables);
+        layout.setPadding(new Insets(15));
+        layout.setStyle("-fx-background-color: #f0f8ff;");
+
+        Stage stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("Sales Report");
+        stage.setScene(new Scene(layout, 820, 470));
+        stage.show();
+    }
+
+    // Writes a receipt for every bill in the range into a chosen folder,
+    // several at a time, off the FX thread.
+    private void reprintReceipts(Button button, LocalDate from, LocalDate to) {
+        if (from == null || to == null) return;
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Reprint Receipts To");
+        File dir = chooser.showDialog(button.getScene().getWindow());
+        if (dir == null) return;
+
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws IOException {
+                return ReceiptRenderer.renderAll(bill.ledger().bills(from, to), dir.toPath());
+            }
+        };
+        button.disableProperty().bind(task.runningProperty());
+        task.setOnSucceeded(e -> showAlert("Reprinted " + task.getValue() + " receipts to " + dir));
+        task.setOnFailed(e -> showAlert("Reprint failed: " + task.getException().getMessage()));
+        Thread t = new Thread(task, "receipt-reprint");
+        t.setDaemon(true);
+        t.start();
+    }
+
     private void showAlert(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Message");
@@ -312,27 +404,6 @@ public class Main extends Application {
         alert.showAndWait();
     }
 
-    public static class Product {
-        private String name;
-        private int quantity;
-        private double price;
-
-        public Product(String name, int quantity, double price) {
-            this.name = name;
-            this.quantity = quantity;
-            this.price = price;
-        }
-
-        public String getName() { return name; }
-        public int getQuantity() { return quantity; }
-        public double getPrice() { return price; }
-        public double getTotal() { return quantity * price; }
-
-        public void setName(String name) { this.name = name; }
-        public void setQuantity(int quantity) { this.quantity = quantity; }
-        public void setPrice(double price) { this.price = price; }
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,12 +1,13 @@
 package application;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.*;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.*;
@@ -14,10 +15,18 @@ import javafx.stage.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Main extends Application {
     private TableView<Student> table = new TableView<>();
-    private ObservableList<Student> data = FXCollections.observableArrayList();
+    private static final String FILENAME = "students.txt";
+    private final StudentRepository repository = new StudentRepository(Paths.get(FILENAME));
+    private FilteredList<Student> filtered = new FilteredList<>(repository.students(), s -> true);
+    private TextField tfSearch = new TextField();
+    private DebouncedSearch<SearchIndex<Student>.Hits> search = new DebouncedSearch<>(150,
+            repository::search, hits -> filtered.setPredicate(hits == null ? s -> true : hits));
 
     private TextField tfName = new TextField(),
             tfDept = new TextField(),
@@ -25,7 +34,12 @@ public class Main extends Application {
             tfCourse = new TextField();
 
     private Stage primaryStage;
-    private static final String FILENAME = "students.txt";
+    private Task<Integer> loadTask;
+
+    @Override
+    public void stop() throws IOException {
+        repository.close();
+    }
 
     @Override
     public void start(Stage stage) {
@@ -36,20 +50,39 @@ public class Main extends Application {
     }
 
     private void loadFromFile() {
-        Path path = Paths.get(FILENAME);
-        if (Files.exists(path)) {
-            try {
-                List<String> lines = Files.readAllLines(path);
-                for (String ln : lines) {
-                    String[] parts = ln.split(",");
-                    if (parts.length == 4) {
-                        data.add(new Student(parts[0], parts[1], parts[2], parts[3]));
+        loadTask = new Task<>() {
+            @Override
+            protected Integer call() throws IOException {
+                int count = repository.read(
+                        batch -> Platform.runLater(() -> repository.addLoaded(batch)),
+                        (done, total, n) -> {
+                            updateProgress(done, total);
+                            updateMessage("Loading students... " + n);
+                        });
+                // Queued behind every snapshot batch, so the journal replays
+                // against the complete snapshot.
+                List<ChangeJournal.Change> changes = repository.readJournal();
+                Platform.runLater(() -> {
+                    try {
+                        repository.recover(changes);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        alert(e.getMessage());
                     }
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
+                });
+                updateProgress(1, 1);
+                updateMessage(count + " students loaded");
+                return count;
             }
-        }
+        };
+        loadTask.setOnFailed(e -> {
+            loadTask.getException().printStackTrace();
+            alert("Could not load " + FILENAME + ": " + loadTask.getException().getMessage()
+                    + "\nChanges will not be saved until it loads.");
+        });
+        Thread loader = new Thread(loadTask, "student-loader");
+        loader.setDaemon(true);
+        loader.start();
     }
 
     private void showLoginScene() {
@@ -60,6 +93,11 @@ public class Main extends Application {
         Button btnLogin = new Button("Login");
         Label lblMessage = new Label();
         lblMessage.setTextFill(Color.RED);
+        Label lblLoad = new Label();
+        lblLoad.textProperty().bind(loadTask.messageProperty());
+        ProgressBar pbLoad = new ProgressBar();
+        pbLoad.progressProperty().bind(loadTask.progressProperty());
+        pbLoad.visibleProperty().bind(loadTask.runningProperty());
 
         GridPane loginPane = new GridPane();
         loginPane.setPadding(new Insets(20));
@@ -73,6 +111,8 @@ public class Main extends Application {
         loginPane.add(pfPass, 1, 1);
         loginPane.add(btnLogin, 1, 2);
         loginPane.add(lblMessage, 1, 3);
+        loginPane.add(pbLoad, 1, 4);
+        loginPane.add(lblLoad, 1, 5);
 
         btnLogin.setOnAction(e -> {
             if ("admin".equals(tfUser.getText().trim()) && "admin".equals(pfPass.getText())) {
@@ -83,49 +123,40 @@ public class Main extends Application {
             }
         });
 
-        Scene loginScene = new Scene(loginPane, 300, 200);
+        Scene loginScene = new Scene(loginPane, 300, 260);
         primaryStage.setScene(loginScene);
         primaryStage.show();
     }
 
     private void showMainScene() {
-        TableColumn<Student, String> nameCol = new TableColumn<>("Name");
+        TableColumn<Student, String> nameCol = Columns.of("Name", Student::nameProperty);
         nameCol.setMinWidth(150);
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
 
-        TableColumn<Student, String> deptCol = new TableColumn<>("Department");
+        TableColumn<Student, String> deptCol = Columns.of("Department", Student::deptProperty);
         deptCol.setMinWidth(100);
-        deptCol.setCellValueFactory(new PropertyValueFactory<>("dept"));
 
-        TableColumn<Student, String> yearCol = new TableColumn<>("Year");
+        TableColumn<Student, String> yearCol = Columns.of("Year", Student::yearProperty);
         yearCol.setMinWidth(60);
-        yearCol.setCellValueFactory(new PropertyValueFactory<>("year"));
 
-        TableColumn<Student, String> courseCol = new TableColumn<>("Course");
+        TableColumn<Student, String> courseCol = Columns.of("Course", Student::courseProperty);
         courseCol.setMinWidth(100);
-        courseCol.setCellValueFactory(new PropertyValueFactory<>("course"));
 
         table.getColumns().setAll(nameCol, deptCol, yearCol, courseCol);
 
-        FilteredList<Student> filtered = new FilteredList<>(data, s -> true);
         SortedList<Student> sorted = new SortedList<>(filtered);
         sorted.comparatorProperty().bind(table.comparatorProperty());
         table.setItems(sorted);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
-        TextField tfSearch = new TextField();
         tfSearch.setPromptText("Search...");
         Button btnSearch = new Button("Search");
-        btnSearch.setOnAction(e -> {
-            String txt = tfSearch.getText().toLowerCase().trim();
-            filtered.setPredicate(s -> txt.isEmpty() ||
-                    s.getName().toLowerCase().contains(txt) ||
-                    s.getDept().toLowerCase().contains(txt) ||
-                    s.getYear().toLowerCase().contains(txt) ||
-                    s.getCourse().toLowerCase().contains(txt));
-        });
-        tfSearch.textProperty().addListener((obs, old, nw) -> btnSearch.fire());
+        btnSearch.setOnAction(e -> search.submitNow(tfSearch.getText()));
+        tfSearch.textProperty().addListener((obs, old, nw) -> search.submit(nw));
+
+        Button btnArchive = new Button("Browse Archive");
+        btnArchive.setOnAction(e -> browseArchive());
 
-        HBox searchBox = new HBox(10, tfSearch, btnSearch);
+        HBox searchBox = new HBox(10, tfSearch, btnSearch, btnArchive);
         searchBox.setPadding(new Insets(10));
         searchBox.setStyle("-fx-background-color: #e0f7fa;");
 
@@ -141,13 +172,20 @@ public class Main extends Application {
         Button btnSave = new Button("Save");
         btnSave.setOnAction(e -> saveToFile());
         btnSave.setStyle("-fx-background-color: blue;");
+        Button btnImport = new Button("Import");
+        btnImport.setOnAction(e -> importCsv());
+        btnImport.setStyle("-fx-background-color: blue;");
+        Button btnExport = new Button("Export");
+        btnExport.setOnAction(e -> exportCsv());
+        btnExport.setStyle("-fx-background-color: blue;");
 
         tfName.setPromptText("Name");
         tfDept.setPromptText("Department");
         tfYear.setPromptText("Year");
         tfCourse.setPromptText("Course");
 
-        HBox form = new HBox(10, tfName, tfDept, tfYear, tfCourse, btnAdd, btnUpdate, btnDelete, btnSave);
+        HBox form = new HBox(10, tfName, tfDept, tfYear, tfCourse, btnAdd, btnUpdate, btnDelete, btnSave,
+                btnImport, btnExport);
         form.setPadding(new Insets(10));
         form.setStyle("-fx-background-color: lightblue;");
 
@@ -169,46 +207,51 @@ public class Main extends Application {
     }
 
     private void addStudent() {
+        if (stillLoading()) return;
         if (tfName.getText().trim().isEmpty() || tfDept.getText().trim().isEmpty() ||
             tfYear.getText().trim().isEmpty() || tfCourse.getText().trim().isEmpty()) {
             alert("All fields are required!");
             return;
         }
-        data.add(new Student(tfName.getText().trim(), tfDept.getText().trim(),
+        repository.add(new Student(tfName.getText().trim(), tfDept.getText().trim(),
                              tfYear.getText().trim(), tfCourse.getText().trim()));
+        search.submitNow(tfSearch.getText());
         clear();
     }
 
     private void updateStudent() {
+        if (stillLoading()) return;
         Student s = table.getSelectionModel().getSelectedItem();
         if (s == null) {
             alert("Select a student!");
             return;
         }
-        s.setName(tfName.getText().trim());
-        s.setDept(tfDept.getText().trim());
-        s.setYear(tfYear.getText().trim());
-        s.setCourse(tfCourse.getText().trim());
-        table.refresh();
+        repository.update(s, tfName.getText().trim(), tfDept.getText().trim(),
+                tfYear.getText().trim(), tfCourse.getText().trim());
+        search.submitNow(tfSearch.getText());
         clear();
     }
 
     private void deleteStudent() {
-        Student s = table.getSelectionModel().getSelectedItem();
-        if (s == null) {
+        if (stillLoading()) return;
+        List<Student> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
             alert("Select a student to delete!");
         } else {
-            data.remove(s);
+            repository.remove(selected, filtered);
             clear();
         }
     }
 
+    private boolean stillLoading() {
+        if (loadTask.isRunning()) alert("Students are still loading, try again shortly.");
+        return loadTask.isRunning();
+    }
+
     private void saveToFile() {
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(FILENAME))) {
-            for (Student s : data) {
-                writer.write(String.join(",", s.getName(), s.getDept(), s.getYear(), s.getCourse()));
-                writer.newLine();
-            }
+        if (stillLoading()) return;
+        try {
+            repository.save();
             alert("Data saved to " + FILENAME);
         } catch (IOException e) {
             e.printStackTrace();
@@ -216,6 +259,190 @@ public class Main extends Application {
         }
     }
 
+    private void importCsv() {
+        if (stillLoading()) return;
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Students");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv", "*.txt"));
+        File file = chooser.showOpenDialog(primaryStage);
+        if (file == null) return;
+
+        Task<CsvBatch.Result<Student>> task = new Task<>() {
+            @Override
+            protected CsvBatch.Result<Student> call() throws IOException {
+                return CsvBatch.read(file.toPath(), StudentRepository::fromCsv);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            CsvBatch.Result<Student> result = task.getValue();
+            repository.importAll(result.rows);
+            search.submitNow(tfSearch.getText());
+            String msg = "Imported " + result.rows.size() + " students.";
+            if (!result.rejected.isEmpty()) {
+                Path report = Paths.get(file.getPath() + ".rejected.txt");
+                try {
+                    CsvBatch.writeRejected(report, result.rejected);
+                    msg += "\nRejected " + result.rejected.size() + " rows, see " + report;
+                } catch (IOException ex) {
+                    msg += "\nRejected " + result.rejected.size() + " rows (report not written: " + ex.getMessage() + ")";
+                }
+            }
+            alert(msg);
+        });
+        task.setOnFailed(e -> alert("Import failed: " + task.getException().getMessage()));
+        Thread t = new Thread(task, "csv-import");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void exportCsv() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Students");
+        chooser.setInitialFileName("students.csv");
+        File file = chooser.showSaveDialog(primaryStage);
+        if (file == null) return;
+
+        List<Student> rows = new ArrayList<>(repository.students());
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws IOException {
+                CsvBatch.write(file.toPath(), rows,
+                        s -> new String[]{s.getName(), s.getDept(), s.getYear(), s.getCourse()});
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> alert("Exported " + rows.size() + " students to " + file));
+        task.setOnFailed(e -> alert("Export failed: " + task.getException().getMessage()));
+        Thread t = new Thread(task, "csv-export");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // Opens a students file read-only without loading it: the table pages rows
+    // in from disk, and sorting and search run as scans in the background.
+    private void browseArchive() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Browse Student Archive");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Student files", "*.txt", "*.csv"));
+        File file = chooser.showOpenDialog(primaryStage);
+        if (file == null) return;
+
+        TableView<Student> archiveTable = new TableView<>();
+        archiveTable.getColumns().setAll(List.of(Columns.of("Name", Student::nameProperty),
+                Columns.of("Department", Student::deptProperty), Columns.of("Year", Student::yearProperty),
+                Columns.of("Course", Student::courseProperty)));
+        archiveTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        TextField tfFind = new TextField();
+        tfFind.setPromptText("Search archive...");
+        tfFind.setDisable(true);
+        ProgressBar pbIndex = new ProgressBar();
+        Label lblStatus = new Label();
+
+        HBox top = new HBox(10, tfFind, pbIndex);
+        top.setPadding(new Insets(10));
+        VBox root = new VBox(10, top, archiveTable, lblStatus);
+        root.setPadding(new Insets(10));
+        Stage stage = new Stage();
+        stage.initOwner(primaryStage);
+        stage.setTitle("Archive - " + file.getName());
+        stage.setScene(new Scene(root, 700, 500));
+        stage.show();
+
+        Task<ArchiveStore<Student>> open = new Task<>() {
+            @Override
+            protected ArchiveStore<Student> call() throws IOException {
+                return ArchiveStore.open(file.toPath(), Student::parse, (done, total, n) -> {
+                    updateProgress(done, total);
+                    updateMessage("Indexing... " + n + " students");
+                });
+            }
+        };
+        lblStatus.textProperty().bind(open.messageProperty());
+        pbIndex.progressProperty().bind(open.progressProperty());
+        pbIndex.visibleProperty().bind(open.runningProperty());
+        open.setOnSucceeded(e -> {
+            ArchiveStore<Student> store = open.getValue();
+            if (!stage.isShowing()) {
+                closeQuietly(store);
+                return;
+            }
+            showArchive(stage, store, archiveTable, tfFind, lblStatus);
+        });
+        open.setOnFailed(e -> {
+            stage.close();
+            alert("Could not open archive: " + open.getException().getMessage());
+        });
+        Thread t = new Thread(open, "archive-index");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // Sorts and searches of one archive share a thread of their own: each is a
+    // full scan of the file, and the store is closed behind the last of them.
+    private void showArchive(Stage stage, ArchiveStore<Student> store, TableView<Student> archiveTable,
+                             TextField tfFind, Label lblStatus) {
+        ScheduledExecutorService scans = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "archive-scan");
+            t.setDaemon(true);
+            return t;
+        });
+        PagedList<Student> rows = new PagedList<>(store);
+        lblStatus.textProperty().unbind();
+        Runnable status = () -> lblStatus.setText(rows.size() + " of " + store.rows() + " students");
+        rows.addListener((ListChangeListener<Student>) c -> status.run());
+        status.run();
+        archiveTable.setItems(rows);
+
+        AtomicReference<Task<int[]>> currentSort = new AtomicReference<>();
+        archiveTable.setSortPolicy(tv -> {
+            TableColumn<Student, ?> col = tv.getSortOrder().isEmpty() ? null : tv.getSortOrder().get(0);
+            int field = tv.getColumns().indexOf(col);
+            boolean descending = col != null && col.getSortType() == TableColumn.SortType.DESCENDING;
+            Task<int[]> sort = new Task<>() {
+                @Override
+                protected int[] call() throws IOException {
+                    return field < 0 ? null : store.order(field, descending);
+                }
+            };
+            sort.setOnSucceeded(e -> {
+                if (currentSort.get() == sort) rows.setOrder(sort.getValue());
+            });
+            sort.setOnFailed(e -> alert("Sort failed: " + sort.getException().getMessage()));
+            // Not cancel(): interrupting a read would close the store's channel.
+            Task<int[]> superseded = currentSort.getAndSet(sort);
+            if (superseded != null) superseded.cancel(false);
+            scans.execute(sort);
+            return true;
+        });
+
+        DebouncedSearch<BitSet> find = new DebouncedSearch<>(scans, 300, q -> {
+            try {
+                return store.matches(q);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }, rows::setMatches);
+        tfFind.textProperty().addListener((obs, old, nw) -> find.submit(nw));
+        tfFind.setDisable(false);
+
+        stage.setOnHidden(ev -> {
+            find.cancel();
+            Task<int[]> sort = currentSort.getAndSet(null);
+            if (sort != null) sort.cancel(false);
+            scans.execute(() -> closeQuietly(store));
+            scans.shutdown();
+        });
+    }
+
+    private static void closeQuietly(ArchiveStore<?> store) {
+        try {
+            store.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     private void clear() {
         tfName.clear();
         tfDept.clear();
@@ -227,21 +454,6 @@ public class Main extends Application {
         new Alert(Alert.AlertType.WARNING, msg, ButtonType.OK).showAndWait();
     }
 
-    public static class Student {
-        private String name, dept, year, course;
-        public Student(String n, String d, String y, String c) {
-            name = n; dept = d; year = y; course = c;
-        }
-        public String getName() { return name; }
-        public void setName(String n) { name = n; }
-        public String getDept() { return dept; }
-        public void setDept(String d) { dept = d; }
-        public String getYear() { return year; }
-        public void setYear(String y) { year = y; }
-        public String getCourse() { return course; }
-        public void setCourse(String c) { course = c; }
-    }
-
     public static void main(String[] args) {
         launch(args);
     }